@@ -0,0 +1,65 @@
+plugins {
+	java
+	id("org.springframework.boot")
+	id("io.spring.dependency-management")
+}
+
+group = "com.example"
+version = "0.0.1-SNAPSHOT"
+
+java {
+	toolchain {
+		languageVersion = JavaLanguageVersion.of(17)
+	}
+}
+
+repositories {
+	mavenCentral()
+}
+
+sourceSets {
+	main {
+		java {
+			// Money, ProductDto, DtoMapper, ProductNotFoundException and InvalidationMessage are shared with the
+			// servlet application so both variants validate, round, report errors and announce changes the same way.
+			srcDir("../src/main/java")
+			include(
+				"com/ingemark/product/reactive/**",
+				"com/ingemark/product/model/Money.java",
+				"com/ingemark/product/controller/dto/ProductDto.java",
+				"com/ingemark/product/controller/mapper/DtoMapper.java",
+				"com/ingemark/product/exception/ProductNotFoundException.java",
+				"com/ingemark/product/invalidation/InvalidationMessage.java"
+			)
+		}
+	}
+	create("benchmark")
+}
+
+dependencies {
+	implementation("org.springframework.boot:spring-boot-starter-webflux")
+	implementation("org.springframework.boot:spring-boot-starter-data-r2dbc")
+	implementation("org.springframework.boot:spring-boot-starter-validation")
+	runtimeOnly("org.postgresql:r2dbc-postgresql")
+	testImplementation("org.springframework.boot:spring-boot-starter-test")
+	testImplementation("io.projectreactor:reactor-test")
+	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.withType<Test> {
+	useJUnitPlatform()
+}
+
+tasks.register<JavaExec>("benchmark") {
+	description = "Compares the servlet and the reactive product API under concurrent load."
+	group = "verification"
+	classpath = sourceSets["benchmark"].runtimeClasspath
+	mainClass = "com.ingemark.product.reactive.benchmark.ProductApiBenchmark"
+	args = listOf(
+		"servlet=" + (findProperty("servlet") ?: "http://localhost:8080"),
+		"reactive=" + (findProperty("reactive") ?: "http://localhost:8081"),
+		"path=" + (findProperty("path") ?: "/products"),
+		"concurrency=" + (findProperty("concurrency") ?: "512"),
+		"requests=" + (findProperty("requests") ?: "20000")
+	)
+}
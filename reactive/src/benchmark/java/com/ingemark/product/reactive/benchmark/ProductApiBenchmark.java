@@ -0,0 +1,138 @@
+package com.ingemark.product.reactive.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ProductApiBenchmark sends the same GET request to the servlet and to the reactive product API
+ * with a fixed number of requests in flight and prints throughput and latency percentiles for both.
+ * Both applications have to be running against the same database; run it with
+ * {@code gradle :reactive:benchmark -Pconcurrency=1024 -Prequests=50000 -Ppath=/products}.
+ * Start the servlet application with hnb.rate.mode=shared so that neither side calls HNB on every request,
+ * and with product.catalog-snapshot.enabled=false and product.concurrency-limit.enabled=false so that it
+ * reads the catalog from the database like the reactive one and does not shed the excess load.
+ * A servlet run still serving the snapshot is reported, and shed requests (503) are counted apart from errors.
+ */
+public final class ProductApiBenchmark {
+	/** Timeout of a single request. */
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+	/** Status of requests shed by the concurrency limiter. */
+	private static final int SERVICE_UNAVAILABLE = 503;
+
+	private ProductApiBenchmark() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			options.put(arg.substring(0, separator), arg.substring(separator + 1));
+		}
+		String path = options.getOrDefault("path", "/products");
+		int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "512"));
+		int requests = Integer.parseInt(options.getOrDefault("requests", "20000"));
+
+		System.out.printf(Locale.ROOT, "GET %s, %d requests, %d in flight%n", path, requests, concurrency);
+		warnIfSnapshotServed(URI.create(options.get("servlet") + path));
+		System.out.printf(Locale.ROOT, "%-9s %10s %10s %10s %10s %10s %8s %8s%n",
+				"variant", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "shed", "errors");
+		for (String variant : new String[] {"servlet", "reactive"}) {
+			URI uri = URI.create(options.get(variant) + path);
+			run(uri, concurrency, Math.max(requests / 10, concurrency));
+			Result result = run(uri, concurrency, requests);
+			System.out.printf(Locale.ROOT, "%-9s %10.0f %10.1f %10.1f %10.1f %10.1f %8d %8d%n", variant,
+					result.throughput(), result.percentile(50), result.percentile(90), result.percentile(99),
+					result.percentile(100), result.shed(), result.errors());
+		}
+	}
+
+	/**
+	 * Warns if the servlet application answers from the in-memory catalog snapshot,
+	 * which it marks with an ETag, instead of reading the database like the reactive one.
+	 *
+	 * @param uri the servlet URI to request
+	 */
+	private static void warnIfSnapshotServed(URI uri) throws Exception {
+		HttpClient client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+		HttpRequest request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build();
+		HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+		if (response.headers().firstValue("ETag").isPresent()) {
+			System.out.println("warning: the servlet application serves the catalog snapshot, "
+					+ "start it with product.catalog-snapshot.enabled=false for a like-for-like comparison");
+		}
+	}
+
+	/**
+	 * Sends the requests, keeping at most the given number in flight.
+	 *
+	 * @param uri the URI to request
+	 * @param concurrency the number of requests in flight
+	 * @param requests the number of requests to send
+	 * @return the measured result
+	 */
+	private static Result run(URI uri, int concurrency, int requests) throws InterruptedException {
+		HttpClient client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(REQUEST_TIMEOUT)
+				.build();
+		HttpRequest request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build();
+		Semaphore inFlight = new Semaphore(concurrency);
+		CountDownLatch done = new CountDownLatch(requests);
+		AtomicInteger shed = new AtomicInteger();
+		AtomicInteger errors = new AtomicInteger();
+		long[] latencies = new long[requests];
+		long start = System.nanoTime();
+		for (int i = 0; i < requests; i++) {
+			inFlight.acquire();
+			int index = i;
+			long sent = System.nanoTime();
+			client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+				latencies[index] = System.nanoTime() - sent;
+				if (error == null && response.statusCode() == SERVICE_UNAVAILABLE) {
+					shed.incrementAndGet();
+				} else if (error != null || response.statusCode() >= 400) {
+					errors.incrementAndGet();
+				}
+				inFlight.release();
+				done.countDown();
+			});
+		}
+		done.await();
+		long elapsed = System.nanoTime() - start;
+		return new Result(latencies, elapsed, shed.get(), errors.get());
+	}
+
+	/**
+	 * Latencies and errors of a run.
+	 *
+	 * @param latencies the latency of every request in nanoseconds
+	 * @param elapsedNanos the duration of the run
+	 * @param shed the number of requests rejected with 503 by a concurrency limiter
+	 * @param errors the number of other failed requests
+	 */
+	private record Result(long[] latencies, long elapsedNanos, int shed, int errors) {
+		Result {
+			Arrays.sort(latencies);
+		}
+
+		double throughput() {
+			return latencies.length * 1e9 / elapsedNanos;
+		}
+
+		double percentile(double percentile) {
+			int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+			return latencies[Math.max(index, 0)] / 1e6;
+		}
+	}
+}
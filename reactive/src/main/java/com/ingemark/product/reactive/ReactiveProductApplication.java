@@ -0,0 +1,18 @@
+package com.ingemark.product.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Main class of the non-blocking variant of the product API.
+ * It serves the same /products endpoints on Netty with WebFlux and R2DBC,
+ * against the product table created by the servlet application.
+ */
+@SpringBootApplication
+public class ReactiveProductApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveProductApplication.class, args);
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.ingemark.product.reactive.controller;
+
+import com.ingemark.product.controller.dto.ProductDto;
+import com.ingemark.product.exception.ProductNotFoundException;
+import com.ingemark.product.reactive.controller.mapper.ProductMapper;
+import com.ingemark.product.reactive.service.ReactiveProductService;
+import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ReactiveProductController serves the /products endpoints of ProductController without blocking.
+ * The full catalog is streamed, as a JSON array or as newline delimited JSON, instead of being collected first.
+ */
+@RestController
+@RequestMapping("/products")
+public class ReactiveProductController {
+	/** Service for managing products. */
+	private final ReactiveProductService service;
+
+	/** Mapper for converting between Product and ProductDto objects. */
+	private final ProductMapper productMapper = new ProductMapper();
+
+	/**
+	 * Constructs a ReactiveProductController with the specified ReactiveProductService.
+	 *
+	 * @param service the service for managing products
+	 */
+	public ReactiveProductController(ReactiveProductService service) {
+		this.service = service;
+	}
+
+	/**
+	 * Creates a new Product and saves it to the database.
+	 *
+	 * @param productDto the Product dto to create
+	 * @return the created Product with USD price set, otherwise an error response.
+	 */
+	@PostMapping
+	public Mono<ResponseEntity<?>> createProduct(@Valid @RequestBody ProductDto productDto) {
+		return service.createProduct(productMapper.mapFrom(productDto))
+				.<ResponseEntity<?>>map(product -> ResponseEntity.status(HttpStatus.CREATED).body(productMapper.mapTo(product)))
+				.onErrorResume(DataIntegrityViolationException.class, ex -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT)
+						.body("Product with code " + productDto.getCode() + " already exists.")))
+				.onErrorResume(ex -> Mono.just(
+						ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+								.body("Failed to create product: " + ex.getMessage())));
+	}
+
+	/**
+	 * Retrieves a Product by its code and converts its price from EUR to USD.
+	 *
+	 * @param code the Code of the Product to retrieve
+	 * @return the Product with USD price set, otherwise an error response.
+	 */
+	@GetMapping("/{code}")
+	public Mono<ResponseEntity<?>> getProductByCode(@PathVariable String code) {
+		return service.getProductByCode(code)
+				.<ResponseEntity<?>>map(product -> ResponseEntity.ok(productMapper.mapTo(product)))
+				.onErrorResume(ProductNotFoundException.class, ex -> Mono.just(
+						ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage())))
+				.onErrorResume(ex -> Mono.just(
+						ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+								.body("Failed to fetch product: " + ex.getMessage())));
+	}
+
+	/**
+	 * Streams all Products with their prices converted from EUR to USD.
+	 * Rows are read from the database as the client consumes the response, so a slow client slows the query
+	 * instead of making the catalog pile up in memory. Because the status is sent with the first row,
+	 * an empty catalog is answered with an empty array rather than 204.
+	 *
+	 * @return the Product dtos with USD prices set
+	 */
+	@GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+	public Flux<ProductDto> getAllProducts() {
+		return service.getAllProducts().map(productMapper::mapTo);
+	}
+}
@@ -0,0 +1,76 @@
+package com.ingemark.product.reactive.hnb;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * ReactiveHnbClient fetches the EUR to USD exchange rate from the HNB API with a non-blocking WebClient.
+ * The rate is cached for hnb.rate.cache-ttl; concurrent requests during a refresh share a single call,
+ * and failures are not cached.
+ */
+@Component
+public class ReactiveHnbClient {
+	/** URL for the HNB API to get the EUR to USD exchange rate. */
+	private static final String HNB_API_URL = "https://api.hnb.hr/tecajn-eur/v3?valuta=USD";
+
+	/** Mapper used to parse the HNB response. */
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	/** Cached exchange rate, refetched once the TTL has passed. */
+	private final Mono<BigDecimal> eurToUsdRate;
+
+	/**
+	 * Constructs a ReactiveHnbClient.
+	 *
+	 * @param webClientBuilder the builder for the WebClient
+	 * @param cacheTtl how long a fetched rate is reused
+	 * @param timeout the timeout of a single HNB call
+	 */
+	public ReactiveHnbClient(WebClient.Builder webClientBuilder,
+							 @Value("${hnb.rate.cache-ttl:PT30S}") Duration cacheTtl,
+							 @Value("${hnb.rate.timeout:PT5S}") Duration timeout) {
+		WebClient webClient = webClientBuilder.build();
+		this.eurToUsdRate = webClient.get()
+				.uri(HNB_API_URL)
+				.retrieve()
+				.bodyToMono(String.class)
+				.timeout(timeout)
+				.map(this::getAverageExchangeRate)
+				.switchIfEmpty(Mono.error(() -> new RuntimeException("Failed to fetch exchange rate from HNB API")))
+				.cache(rate -> cacheTtl, error -> Duration.ZERO, () -> Duration.ZERO);
+	}
+
+	/**
+	 * Gets the current EUR to USD exchange rate.
+	 *
+	 * @return the exchange rate
+	 */
+	public Mono<BigDecimal> getEurToUsdRate() {
+		return eurToUsdRate;
+	}
+
+	/**
+	 * Parses the "srednji_tecaj" value of the HNB API response.
+	 *
+	 * @param exchangeRate the JSON response string from the HNB API
+	 * @return the average exchange rate
+	 */
+	BigDecimal getAverageExchangeRate(String exchangeRate) {
+		try {
+			JsonNode root = objectMapper.readTree(exchangeRate);
+			if (root.isArray() && !root.isEmpty()) {
+				return new BigDecimal(root.get(0).get("srednji_tecaj").asText().replace(",", "."));
+			}
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to parse HNB api data JSON", e);
+		}
+		throw new RuntimeException("No data found in HNB api JSON");
+	}
+}
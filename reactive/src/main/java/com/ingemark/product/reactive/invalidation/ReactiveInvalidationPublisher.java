@@ -0,0 +1,93 @@
+package com.ingemark.product.reactive.invalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingemark.product.invalidation.InvalidationMessage;
+import com.ingemark.product.reactive.repository.ReactiveProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ReactiveInvalidationPublisher announces products written by the reactive variant to the instances of the
+ * main application, with the same PostgreSQL NOTIFY messages their InvalidationPublisher sends.
+ * The notification is sent on the connection of the writing transaction, so it is delivered only if the
+ * write commits. The sequence number is taken while the change version lock is held, so the messages of
+ * this instance are delivered in sequence order; a rolled back write leaves a gap the listeners answer with a flush.
+ * Enabled with {@code product.invalidation.enabled=true}.
+ */
+@Component
+public class ReactiveInvalidationPublisher {
+	/** Random id of this instance, different on every start. */
+	private final String nodeId = UUID.randomUUID().toString();
+
+	/** Sequence number of the last message. */
+	private final AtomicLong sequence = new AtomicLong();
+
+	/** Repository the notifications are sent through. */
+	private final ReactiveProductRepository repository;
+
+	/** Mapper serializing the messages. */
+	private final ObjectMapper objectMapper;
+
+	/** Whether notifications are sent at all. */
+	private final boolean enabled;
+
+	/** Notification channel shared by all instances. */
+	private final String channel;
+
+	/**
+	 * Constructs a ReactiveInvalidationPublisher.
+	 *
+	 * @param repository the repository the notifications are sent through
+	 * @param objectMapper the mapper serializing the messages
+	 * @param enabled whether notifications are sent
+	 * @param channel the notification channel
+	 */
+	public ReactiveInvalidationPublisher(ReactiveProductRepository repository, ObjectMapper objectMapper,
+										 @Value("${product.invalidation.enabled:false}") boolean enabled,
+										 @Value("${product.invalidation.channel:product_changes}") String channel) {
+		this.repository = repository;
+		this.objectMapper = objectMapper;
+		this.enabled = enabled;
+		this.channel = channel;
+	}
+
+	/**
+	 * Announces a created or updated product. Must be subscribed to inside the writing transaction,
+	 * after the change version lock has been taken.
+	 *
+	 * @param code the code of the changed product
+	 * @return completes once the notification is queued in the transaction
+	 */
+	public Mono<Void> publish(String code) {
+		if (!enabled) {
+			return Mono.empty();
+		}
+		return Mono.defer(() -> {
+			InvalidationMessage message = new InvalidationMessage();
+			message.setNode(nodeId);
+			message.setSeq(sequence.incrementAndGet());
+			message.setCodes(List.of(code));
+			return repository.pgNotify(channel, serialize(message));
+		}).then();
+	}
+
+	/**
+	 * Serializes a message to JSON.
+	 *
+	 * @param message the message
+	 * @return the JSON payload
+	 */
+	private String serialize(InvalidationMessage message) {
+		try {
+			return objectMapper.writeValueAsString(message);
+		} catch (JsonProcessingException ex) {
+			throw new IllegalStateException("Failed to serialize product invalidation", ex);
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.ingemark.product.reactive.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+
+/**
+ * Product is the R2DBC mapping of the product table owned by the servlet application.
+ * Prices are read and written as the decimal column values; conversions go through Money.
+ */
+@Table("product")
+public class Product {
+	/** Unique identifier for the product. */
+	@Id
+	private Long id;
+
+	/** Unique code for the product, exactly 10 characters long. */
+	private String code;
+
+	/** Name of the product. */
+	private String name;
+
+	/** Price of the product in EUR. */
+	@Column("price_eur")
+	private BigDecimal priceEur;
+
+	/** Price of the product in USD, calculated from the EUR price. */
+	@Column("price_usd")
+	private BigDecimal priceUsd;
+
+	/** Availability status of the product, true if available, false otherwise. */
+	@Column("is_available")
+	private boolean available;
+
+	/**
+	 * Gets the unique identifier of the product.
+	 *
+	 * @return the ID of the product
+	 */
+	public Long getId() {
+		return id;
+	}
+
+	/**
+	 * Sets the unique identifier of the product.
+	 *
+	 * @param id the ID to set
+	 */
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	/**
+	 * Gets the unique code of the product.
+	 *
+	 * @return the code of the product
+	 */
+	public String getCode() {
+		return code;
+	}
+
+	/**
+	 * Sets the unique code for the product.
+	 *
+	 * @param code the unique code to set
+	 */
+	public void setCode(String code) {
+		this.code = code;
+	}
+
+	/**
+	 * Gets the name of the product.
+	 *
+	 * @return the name of the product
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Sets the name of the product.
+	 *
+	 * @param name the name to set
+	 */
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Gets the price of the product in EUR.
+	 *
+	 * @return the price in EUR, or null if not set
+	 */
+	public BigDecimal getPriceEur() {
+		return priceEur;
+	}
+
+	/**
+	 * Sets the price of the product in EUR.
+	 *
+	 * @param priceEur the price in EUR to set
+	 */
+	public void setPriceEur(BigDecimal priceEur) {
+		this.priceEur = priceEur;
+	}
+
+	/**
+	 * Gets the price of the product in USD.
+	 *
+	 * @return the price in USD, or null if not set
+	 */
+	public BigDecimal getPriceUsd() {
+		return priceUsd;
+	}
+
+	/**
+	 * Sets the price of the product in USD.
+	 *
+	 * @param priceUsd the price in USD to set
+	 */
+	public void setPriceUsd(BigDecimal priceUsd) {
+		this.priceUsd = priceUsd;
+	}
+
+	/**
+	 * Checks if the product is available.
+	 *
+	 * @return true if the product is available, false otherwise
+	 */
+	public boolean isAvailable() {
+		return available;
+	}
+
+	/**
+	 * Sets the availability status of the product.
+	 *
+	 * @param available true if the product is available, false otherwise
+	 */
+	public void setAvailable(boolean available) {
+		this.available = available;
+	}
+}
@@ -0,0 +1,46 @@
+package com.ingemark.product.reactive.repository;
+
+import com.ingemark.product.reactive.model.Product;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * ReactiveProductRepository is the non-blocking repository for Product rows.
+ * findAll streams rows as they are demanded; the driver fetches them in portions of spring.r2dbc.properties.fetchSize.
+ */
+@Repository
+public interface ReactiveProductRepository extends ReactiveCrudRepository<Product, Long> {
+	/** Advisory lock key serializing product writes, the same key the servlet application uses. */
+	long CHANGE_VERSION_LOCK_KEY = 0x5052_4F44L;
+
+	/**
+	 * Finds a Product by its code.
+	 *
+	 * @param code the code of the Product
+	 * @return the Product, or an empty Mono if there is none
+	 */
+	Mono<Product> findByCode(String code);
+
+	/**
+	 * Waits for the advisory lock serializing product writes, held until the current transaction ends,
+	 * so the change versions the database assigns become visible in increasing order.
+	 *
+	 * @param key the lock key, CHANGE_VERSION_LOCK_KEY
+	 * @return always 1
+	 */
+	@Query("select 1 from pg_advisory_xact_lock(:key)")
+	Mono<Integer> advisoryXactLock(@Param("key") long key);
+
+	/**
+	 * Sends a notification on the current connection, delivered when the current transaction commits.
+	 *
+	 * @param channel the notification channel
+	 * @param payload the notification payload
+	 * @return always 1
+	 */
+	@Query("select 1 from pg_notify(:channel, :payload)")
+	Mono<Integer> pgNotify(@Param("channel") String channel, @Param("payload") String payload);
+}
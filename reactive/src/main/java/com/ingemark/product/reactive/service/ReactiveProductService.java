@@ -0,0 +1,117 @@
+package com.ingemark.product.reactive.service;
+
+import com.ingemark.product.exception.ProductNotFoundException;
+import com.ingemark.product.model.Money;
+import com.ingemark.product.reactive.hnb.ReactiveHnbClient;
+import com.ingemark.product.reactive.invalidation.ReactiveInvalidationPublisher;
+import com.ingemark.product.reactive.model.Product;
+import com.ingemark.product.reactive.repository.ReactiveProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * ReactiveProductService is the non-blocking counterpart of ProductService.
+ * Prices are converted with the same fixed-point rules, see {@link Money}.
+ */
+@Service
+public class ReactiveProductService {
+	/** Number of rows requested from the database at a time while streaming the catalog. */
+	static final int STREAM_PREFETCH = 256;
+
+	/** Repository for accessing Product rows. */
+	private final ReactiveProductRepository repository;
+
+	/** Client for the HNB exchange rate. */
+	private final ReactiveHnbClient hnbClient;
+
+	/** Transaction of product creation, started after the exchange rate lookup. */
+	private final TransactionalOperator transactionalOperator;
+
+	/** Publisher announcing written products to the main application. */
+	private final ReactiveInvalidationPublisher invalidationPublisher;
+
+	/**
+	 * Constructs a ReactiveProductService with the specified repository, HNB client, transactional operator
+	 * and invalidation publisher.
+	 *
+	 * @param repository the repository for Product rows
+	 * @param hnbClient the client for the HNB exchange rate
+	 * @param transactionalOperator the operator running product creation in a transaction
+	 * @param invalidationPublisher the publisher announcing written products
+	 */
+	public ReactiveProductService(ReactiveProductRepository repository, ReactiveHnbClient hnbClient,
+								  TransactionalOperator transactionalOperator,
+								  ReactiveInvalidationPublisher invalidationPublisher) {
+		this.repository = repository;
+		this.hnbClient = hnbClient;
+		this.transactionalOperator = transactionalOperator;
+		this.invalidationPublisher = invalidationPublisher;
+	}
+
+	/**
+	 * Converts the product price from EUR to USD, saves the product under the change version lock
+	 * and announces it in the same transaction.
+	 * The exchange rate is looked up before the transaction starts, so a slow HNB call never holds
+	 * a connection or the change version lock.
+	 *
+	 * @param product the Product to create
+	 * @return the created Product with USD price set
+	 */
+	public Mono<Product> createProduct(Product product) {
+		return hnbClient.getEurToUsdRate()
+				.map(Money::toScaledRate)
+				.flatMap(rate -> transactionalOperator.transactional(
+						repository.advisoryXactLock(ReactiveProductRepository.CHANGE_VERSION_LOCK_KEY)
+								.then(Mono.defer(() -> repository.save(convert(product, rate))))
+								.flatMap(saved -> invalidationPublisher.publish(saved.getCode()).thenReturn(saved))));
+	}
+
+	/**
+	 * Retrieves a Product by its code and converts its price from EUR to USD.
+	 * The lookup and the exchange rate are fetched concurrently.
+	 *
+	 * @param code the code of the Product to retrieve
+	 * @return the Product with USD price set, or a ProductNotFoundException error
+	 */
+	public Mono<Product> getProductByCode(String code) {
+		Mono<Product> product = repository.findByCode(code)
+				.switchIfEmpty(Mono.error(() -> new ProductNotFoundException(code)));
+		return Mono.zip(product, hnbClient.getEurToUsdRate().map(Money::toScaledRate))
+				.map(found -> convert(found.getT1(), found.getT2()));
+	}
+
+	/**
+	 * Streams all Products with their prices converted from EUR to USD.
+	 * Rows are requested from the database only as fast as the client consumes them.
+	 *
+	 * @return the Products with USD prices set
+	 */
+	public Flux<Product> getAllProducts() {
+		return hnbClient.getEurToUsdRate()
+				.map(Money::toScaledRate)
+				.flatMapMany(rate -> repository.findAll()
+						.limitRate(STREAM_PREFETCH)
+						.map(product -> convert(product, rate)));
+	}
+
+	/**
+	 * Sets the USD price of a product from its EUR price.
+	 *
+	 * @param product the product to convert
+	 * @param scaledRate the exchange rate scaled by 10^6
+	 * @return the product
+	 */
+	private static Product convert(Product product, long scaledRate) {
+		BigDecimal priceEur = product.getPriceEur();
+		if (priceEur != null) {
+			long priceEurMinor = Money.toMinorUnits(priceEur);
+			product.setPriceEur(Money.fromMinorUnits(priceEurMinor));
+			product.setPriceUsd(Money.fromMinorUnits(Money.convert(priceEurMinor, scaledRate)));
+		}
+		return product;
+	}
+}
@@ -0,0 +1,70 @@
+package com.ingemark.product.reactive.invalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingemark.product.invalidation.InvalidationMessage;
+import com.ingemark.product.reactive.repository.ReactiveProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReactiveInvalidationPublisherTest is a test class for the ReactiveInvalidationPublisher.
+ * It checks the notifications sent through a mocked repository.
+ */
+public class ReactiveInvalidationPublisherTest {
+	/** Mapper reading the sent payloads */
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	/** Product repository mock */
+	private ReactiveProductRepository repository;
+
+	/**
+	 * Creates the repository mock before each test.
+	 */
+	@BeforeEach
+	public void setUp() {
+		repository = mock(ReactiveProductRepository.class);
+		when(repository.pgNotify(anyString(), anyString())).thenReturn(Mono.just(1));
+	}
+
+	/**
+	 * Tests that products are announced in the message format of the main application, numbered consecutively.
+	 */
+	@Test
+	public void testPublish() throws Exception {
+		ReactiveInvalidationPublisher publisher = new ReactiveInvalidationPublisher(repository, objectMapper, true, "product_changes");
+
+		StepVerifier.create(publisher.publish("ABCDEFGHIJ").then(publisher.publish("KLMNOPQRST")))
+				.verifyComplete();
+
+		ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+		verify(repository, times(2)).pgNotify(eq("product_changes"), payloads.capture());
+		InvalidationMessage first = objectMapper.readValue(payloads.getAllValues().get(0), InvalidationMessage.class);
+		InvalidationMessage second = objectMapper.readValue(payloads.getAllValues().get(1), InvalidationMessage.class);
+		assertEquals(List.of("ABCDEFGHIJ"), first.getCodes());
+		assertFalse(first.isFlush());
+		assertEquals(first.getNode(), second.getNode());
+		assertEquals(first.getSeq() + 1, second.getSeq());
+		assertEquals(List.of("KLMNOPQRST"), second.getCodes());
+	}
+
+	/**
+	 * Tests that nothing is sent while invalidations are disabled.
+	 */
+	@Test
+	public void testPublishDisabled() {
+		ReactiveInvalidationPublisher publisher = new ReactiveInvalidationPublisher(repository, objectMapper, false, "product_changes");
+
+		StepVerifier.create(publisher.publish("ABCDEFGHIJ")).verifyComplete();
+
+		verifyNoInteractions(repository);
+	}
+}
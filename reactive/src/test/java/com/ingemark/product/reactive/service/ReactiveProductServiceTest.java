@@ -0,0 +1,126 @@
+package com.ingemark.product.reactive.service;
+
+import com.ingemark.product.exception.ProductNotFoundException;
+import com.ingemark.product.reactive.hnb.ReactiveHnbClient;
+import com.ingemark.product.reactive.invalidation.ReactiveInvalidationPublisher;
+import com.ingemark.product.reactive.model.Product;
+import com.ingemark.product.reactive.repository.ReactiveProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReactiveProductServiceTest is a test class for the ReactiveProductService.
+ * It uses Mockito to mock the repository and the HNB client and StepVerifier to consume the results.
+ */
+public class ReactiveProductServiceTest {
+	/** Product repository mock */
+	@Mock
+	private ReactiveProductRepository repository;
+
+	/** HNB client mock */
+	@Mock
+	private ReactiveHnbClient hnbClient;
+
+	/** Transactional operator mock, running the wrapped publisher as is */
+	@Mock
+	private TransactionalOperator transactionalOperator;
+
+	/** Invalidation publisher mock */
+	@Mock
+	private ReactiveInvalidationPublisher invalidationPublisher;
+
+	/** Product service */
+	@InjectMocks
+	private ReactiveProductService service;
+
+	/**
+	 * Initializes the mocks before each test.
+	 */
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		when(hnbClient.getEurToUsdRate()).thenReturn(Mono.just(new BigDecimal("1.5")));
+		when(transactionalOperator.transactional(ArgumentMatchers.<Mono<Product>>any()))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+	}
+
+	private static Product product(String code, String priceEur) {
+		Product product = new Product();
+		product.setCode(code);
+		product.setName("Product " + code);
+		product.setPriceEur(new BigDecimal(priceEur));
+		return product;
+	}
+
+	/**
+	 * Tests that a created product is saved with the converted USD price and announced,
+	 * in a transaction started after the exchange rate lookup.
+	 */
+	@Test
+	public void testCreateProduct() {
+		when(repository.advisoryXactLock(ReactiveProductRepository.CHANGE_VERSION_LOCK_KEY)).thenReturn(Mono.just(1));
+		when(repository.save(any(Product.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+		AtomicBoolean announced = new AtomicBoolean();
+		when(invalidationPublisher.publish("ABCDEFGHIJ"))
+				.thenReturn(Mono.fromRunnable(() -> announced.set(true)));
+
+		StepVerifier.create(service.createProduct(product("ABCDEFGHIJ", "10.005")))
+				.assertNext(product -> {
+					assertEquals(new BigDecimal("10.01"), product.getPriceEur());
+					assertEquals(new BigDecimal("15.02"), product.getPriceUsd());
+				})
+				.verifyComplete();
+		assertTrue(announced.get());
+		InOrder inOrder = inOrder(hnbClient, transactionalOperator, invalidationPublisher);
+		inOrder.verify(hnbClient).getEurToUsdRate();
+		inOrder.verify(transactionalOperator).transactional(ArgumentMatchers.<Mono<Product>>any());
+		inOrder.verify(invalidationPublisher).publish("ABCDEFGHIJ");
+	}
+
+	/**
+	 * Tests that an unknown code fails with a ProductNotFoundException.
+	 */
+	@Test
+	public void testGetProductByCodeNotFound() {
+		when(repository.findByCode("UNKNOWN000")).thenReturn(Mono.empty());
+
+		StepVerifier.create(service.getProductByCode("UNKNOWN000"))
+				.expectError(ProductNotFoundException.class)
+				.verify();
+	}
+
+	/**
+	 * Tests that the catalog is streamed on demand instead of being requested from the repository at once.
+	 */
+	@Test
+	public void testGetAllProductsHonoursDemand() {
+		Flux<Product> rows = Flux.fromStream(IntStream.range(0, 10_000)
+				.mapToObj(i -> product(String.format("%010d", i), "2.00")));
+		AtomicLong requested = new AtomicLong();
+		when(repository.findAll()).thenReturn(rows.doOnRequest(requested::addAndGet));
+
+		StepVerifier.create(service.getAllProducts(), 10)
+				.expectNextCount(10)
+				.then(() -> assertTrue(requested.get() <= ReactiveProductService.STREAM_PREFETCH))
+				.thenCancel()
+				.verify();
+	}
+}
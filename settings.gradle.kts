@@ -1 +1,2 @@
 rootProject.name = "Ingemark"
+include("reactive")
@@ -1,13 +1,24 @@
 package com.ingemark.product.controller;
 
+import com.ingemark.product.controller.dto.AvailabilityUpdateDto;
+import com.ingemark.product.controller.dto.AvailabilityUpdateResultDto;
+import com.ingemark.product.controller.dto.ProductChangesDto;
 import com.ingemark.product.controller.dto.ProductDto;
 import com.ingemark.product.controller.mapper.ProductMapper;
 import com.ingemark.product.exception.ProductNotFoundException;
+import com.ingemark.product.jfr.ProductRequestEvent;
 import com.ingemark.product.model.Product;
+import com.ingemark.product.service.AvailabilityUpdateResult;
+import com.ingemark.product.service.ProductChanges;
 import com.ingemark.product.service.ProductService;
+import com.ingemark.product.snapshot.CatalogSnapshot;
+import com.ingemark.product.snapshot.CatalogSnapshotCache;
+import com.ingemark.product.timing.ServerTiming;
 import jakarta.validation.Valid;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,19 +31,27 @@ import java.util.List;
 @RestController
 @RequestMapping("/products")
 public class ProductController {
+	/** Largest number of products returned by a single delta sync request. */
+	static final int MAX_CHANGES_LIMIT = 10_000;
+
 	/** Service for managing Product entities. */
 	private final ProductService service;
 
 	/** Mapper for converting between Product and ProductDto objects. */
 	private final ProductMapper productMapper = new ProductMapper();
 
+	/** Cache holding the pre-serialized full catalog response. */
+	private final CatalogSnapshotCache catalogSnapshotCache;
+
 	/**
-	 * Constructs a ProductController with the specified ProductService.
+	 * Constructs a ProductController with the specified ProductService and CatalogSnapshotCache.
 	 *
 	 * @param service the ProductService for managing products
+	 * @param catalogSnapshotCache the cache holding the pre-serialized catalog
 	 */
-	public ProductController(ProductService service) {
+	public ProductController(ProductService service, CatalogSnapshotCache catalogSnapshotCache) {
 		this.service = service;
+		this.catalogSnapshotCache = catalogSnapshotCache;
 	}
 
 	/**
@@ -44,13 +63,20 @@ public class ProductController {
 	 */
 	@PostMapping
 	public ResponseEntity<?> createProduct(@Valid @RequestBody ProductDto productDto) {
+		ProductRequestEvent.recordCode(productDto.getCode());
 		try {
 			Product product = service.createProduct(productMapper.mapFrom(productDto));
-			return ResponseEntity.status(HttpStatus.CREATED).body(productMapper.mapTo(product));
+			long mapStart = ServerTiming.start();
+			ProductDto createdDto = productMapper.mapTo(product);
+			ServerTiming.record(ServerTiming.MAP, mapStart);
+			ProductRequestEvent.recordProductCount(1);
+			return ResponseEntity.status(HttpStatus.CREATED).body(createdDto);
 		} catch (DataIntegrityViolationException ex) {
+			ProductRequestEvent.recordFailure(ex);
 			return ResponseEntity.status(HttpStatus.CONFLICT)
 					.body("Product with code " + productDto.getCode() + " already exists.");
 		} catch (Exception ex) {
+			ProductRequestEvent.recordFailure(ex);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
 					.body("Failed to create product: " + ex.getMessage());
 		}
@@ -66,10 +92,16 @@ public class ProductController {
 	public ResponseEntity<?> getProductByCode(@PathVariable String code) {
 		try {
 			Product product = service.getProductByCode(code);
-			return ResponseEntity.ok(productMapper.mapTo(product));
+			long mapStart = ServerTiming.start();
+			ProductDto productDto = productMapper.mapTo(product);
+			ServerTiming.record(ServerTiming.MAP, mapStart);
+			ProductRequestEvent.recordProductCount(1);
+			return ResponseEntity.ok(productDto);
 		} catch (ProductNotFoundException ex) {
+			ProductRequestEvent.recordFailure(ex);
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
 		} catch (Exception ex) {
+			ProductRequestEvent.recordFailure(ex);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
 					.body("Failed to fetch product: " + ex.getMessage());
 		}
@@ -77,17 +109,210 @@ public class ProductController {
 
 	/**
 	 * Retrieves all Products from the database and converts their prices from EUR to USD.
+	 * When a catalog snapshot is available its pre-serialized bytes are returned directly,
+	 * gzip compressed if the client accepts it, and conditional requests are answered with 304.
 	 *
+	 * @param acceptEncoding the Accept-Encoding request header
+	 * @param ifNoneMatch the If-None-Match request header
 	 * @return a list of Products dto with USD prices set, otherwise an error response.
 	 */
 	@GetMapping
-	public ResponseEntity<List<?>> getAllProducts() {
-		List<ProductDto> products = service.getAllProducts().stream()
+	public ResponseEntity<?> getAllProducts(
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		CatalogSnapshot snapshot = catalogSnapshotCache.getSnapshot();
+		if (snapshot != null) {
+			ResponseEntity<?> response = serveSnapshot(snapshot, acceptEncoding, ifNoneMatch);
+			ProductRequestEvent.recordSnapshot(response.getStatusCode() == HttpStatus.NOT_MODIFIED
+					? ProductRequestEvent.SNAPSHOT_NOT_MODIFIED : ProductRequestEvent.SNAPSHOT_HIT);
+			return response;
+		}
+		ProductRequestEvent.recordSnapshot(ProductRequestEvent.SNAPSHOT_MISS);
+		List<Product> entities = service.getAllProducts();
+		long mapStart = ServerTiming.start();
+		List<ProductDto> products = entities.stream()
 				.map(productMapper::mapTo)
 				.toList();
+		ServerTiming.record(ServerTiming.MAP, mapStart);
+		ProductRequestEvent.recordProductCount(products.size());
 		if (products.isEmpty()) {
 			return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
 		}
 		return ResponseEntity.ok(products);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Retrieves the Products changed since a token returned by a previous call, for incremental synchronization.
+	 * Without a token all Products are returned, page by page. Availability changes are included;
+	 * products are never deleted, so there are no removals to report.
+	 *
+	 * @param since the nextToken of the previous response, or null to start from the beginning
+	 * @param limit the maximum number of Products to return
+	 * @return the changed Products dto with USD prices set and the next token, otherwise an error response.
+	 */
+	@GetMapping("/changes")
+	public ResponseEntity<?> getChanges(@RequestParam(required = false) String since,
+										@RequestParam(defaultValue = "1000") int limit) {
+		long sinceVersion;
+		try {
+			sinceVersion = since == null || since.isBlank() ? 0 : Long.parseLong(since);
+		} catch (NumberFormatException ex) {
+			sinceVersion = -1;
+		}
+		if (sinceVersion < 0) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid change token: " + since);
+		}
+		if (limit < 1 || limit > MAX_CHANGES_LIMIT) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+					.body("Limit must be between 1 and " + MAX_CHANGES_LIMIT);
+		}
+		try {
+			ProductChanges changes = service.getChangesSince(sinceVersion, limit);
+			long mapStart = ServerTiming.start();
+			ProductChangesDto changesDto = new ProductChangesDto();
+			changesDto.setProducts(changes.getProducts().stream()
+					.map(productMapper::mapTo)
+					.toList());
+			changesDto.setNextToken(Long.toString(changes.getNextVersion()));
+			changesDto.setHasMore(changes.hasMore());
+			ServerTiming.record(ServerTiming.MAP, mapStart);
+			ProductRequestEvent.recordProductCount(changesDto.getProducts().size());
+			return ResponseEntity.ok(changesDto);
+		} catch (Exception ex) {
+			ProductRequestEvent.recordFailure(ex);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+					.body("Failed to fetch product changes: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Sets the availability of many Products at once.
+	 *
+	 * @param availabilityUpdateDto the codes of the Products and their target availability
+	 * @return the number of updated Products and the unknown codes, otherwise an error response.
+	 */
+	@PatchMapping("/availability")
+	public ResponseEntity<?> updateAvailability(@Valid @RequestBody AvailabilityUpdateDto availabilityUpdateDto) {
+		try {
+			AvailabilityUpdateResult result = service.updateAvailability(
+					availabilityUpdateDto.getCodes(), availabilityUpdateDto.getAvailable());
+			AvailabilityUpdateResultDto resultDto = new AvailabilityUpdateResultDto();
+			resultDto.setUpdated(result.getUpdated());
+			resultDto.setUnknownCodes(result.getUnknownCodes());
+			ProductRequestEvent.recordProductCount(result.getUpdated());
+			return ResponseEntity.ok(resultDto);
+		} catch (Exception ex) {
+			ProductRequestEvent.recordFailure(ex);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+					.body("Failed to update availability: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Builds the response for a catalog snapshot.
+	 *
+	 * @param snapshot the snapshot to serve
+	 * @param acceptEncoding the Accept-Encoding request header
+	 * @param ifNoneMatch the If-None-Match request header
+	 * @return the snapshot response
+	 */
+	private ResponseEntity<?> serveSnapshot(CatalogSnapshot snapshot, String acceptEncoding, String ifNoneMatch) {
+		if (snapshot.isEmpty()) {
+			return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+		}
+		boolean gzip = snapshot.getGzip() != null && acceptsGzip(acceptEncoding);
+		String etag = gzip ? snapshot.getGzipEtag() : snapshot.getEtag();
+		if (matchesEtag(ifNoneMatch, etag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+					.eTag(etag)
+					.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+					.build();
+		}
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.eTag(etag)
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (gzip) {
+			return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+		}
+		return response.body(snapshot.getJson());
+	}
+
+	/**
+	 * Checks whether the Accept-Encoding header allows a gzip response.
+	 * An explicit gzip coding wins over the * wildcard, and a coding with q=0 is refused.
+	 *
+	 * @param acceptEncoding the Accept-Encoding request header
+	 * @return true if the client accepts gzip
+	 */
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		Boolean wildcard = null;
+		for (String element : acceptEncoding.split(",")) {
+			String[] parts = element.split(";");
+			String coding = parts[0].trim().toLowerCase();
+			boolean accepted = qualityOf(parts) > 0;
+			if (coding.equals("gzip") || coding.equals("x-gzip")) {
+				return accepted;
+			}
+			if (coding.equals("*")) {
+				wildcard = accepted;
+			}
+		}
+		return wildcard != null && wildcard;
+	}
+
+	/**
+	 * Reads the q parameter of a header element.
+	 *
+	 * @param parts the header element split on semicolons, the value first
+	 * @return the quality, 1 if absent or malformed
+	 */
+	private static double qualityOf(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			String parameter = parts[i].trim();
+			if (parameter.length() > 2 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+				try {
+					return Double.parseDouble(parameter.substring(2).trim());
+				} catch (NumberFormatException ex) {
+					return 1;
+				}
+			}
+		}
+		return 1;
+	}
+
+	/**
+	 * Checks whether the If-None-Match header matches an entity tag, using the weak comparison
+	 * required for If-None-Match: W/ prefixes are ignored and * matches any current representation.
+	 *
+	 * @param ifNoneMatch the If-None-Match request header
+	 * @param etag the entity tag of the current representation
+	 * @return true if the client already has the representation
+	 */
+	static boolean matchesEtag(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		String opaqueTag = stripWeak(etag);
+		for (String candidate : ifNoneMatch.split(",")) {
+			String tag = candidate.trim();
+			if (tag.equals("*") || (!tag.isEmpty() && stripWeak(tag).equals(opaqueTag))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Removes the weak indicator from an entity tag.
+	 *
+	 * @param etag the entity tag
+	 * @return the opaque tag including its quotes
+	 */
+	private static String stripWeak(String etag) {
+		return etag.startsWith("W/") ? etag.substring(2) : etag;
+	}
+}
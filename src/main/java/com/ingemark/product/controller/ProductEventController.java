@@ -0,0 +1,41 @@
+package com.ingemark.product.controller;
+
+import com.ingemark.product.event.ProductEventStream;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * ProductEventController exposes a Server-Sent Events feed of product and exchange rate changes,
+ * so clients no longer have to poll the product list to find out whether anything changed.
+ */
+@RestController
+@RequestMapping("/products")
+public class ProductEventController {
+	/** Stream distributing change events to subscribers. */
+	private final ProductEventStream eventStream;
+
+	/**
+	 * Constructs a ProductEventController with the specified ProductEventStream.
+	 *
+	 * @param eventStream the stream distributing change events
+	 */
+	public ProductEventController(ProductEventStream eventStream) {
+		this.eventStream = eventStream;
+	}
+
+	/**
+	 * Subscribes to product and exchange rate changes. Clients that reconnect send the id of the
+	 * last event they received in the Last-Event-ID header and continue where they left off.
+	 *
+	 * @param lastEventId the id of the last received event, if reconnecting
+	 * @return the event stream
+	 */
+	@GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		return eventStream.subscribe(lastEventId);
+	}
+}
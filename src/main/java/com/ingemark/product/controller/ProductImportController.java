@@ -0,0 +1,60 @@
+package com.ingemark.product.controller;
+
+import com.ingemark.product.controller.dto.ProductImportResultDto;
+import com.ingemark.product.importer.ImportReport;
+import com.ingemark.product.importer.ProductImportService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+/**
+ * ProductImportController accepts the supplier CSV feed as a raw request body and imports it in bulk.
+ * The body is streamed straight into the database, so files of any size can be uploaded.
+ */
+@RestController
+@RequestMapping("/products")
+public class ProductImportController {
+	/** Service importing the CSV feed. */
+	private final ProductImportService importService;
+
+	/**
+	 * Constructs a ProductImportController with the specified ProductImportService.
+	 *
+	 * @param importService the service importing the CSV feed
+	 */
+	public ProductImportController(ProductImportService importService) {
+		this.importService = importService;
+	}
+
+	/**
+	 * Imports products from a CSV body with the columns code, name, price_eur and is_available.
+	 * Existing products are updated by code, new ones are inserted.
+	 *
+	 * @param body the CSV request body
+	 * @return the row counts and rejected lines, otherwise an error response.
+	 */
+	@PostMapping(path = "/import", consumes = {"text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+	public ResponseEntity<?> importProducts(InputStream body) {
+		try {
+			ImportReport report = importService.importCsv(body);
+			ProductImportResultDto resultDto = new ProductImportResultDto();
+			resultDto.setRecordsRead(report.getRecordsRead());
+			resultDto.setRecordsStaged(report.getRecordsStaged());
+			resultDto.setInserted(report.getInserted());
+			resultDto.setUpdated(report.getUpdated());
+			resultDto.setRejected(report.getRejectedCount());
+			resultDto.setRejectedLines(report.getRejectedLines().stream()
+					.map(line -> "line " + line.getLineNumber() + ": " + line.getReason())
+					.toList());
+			return ResponseEntity.ok(resultDto);
+		} catch (Exception ex) {
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+					.body("Failed to import products: " + ex.getMessage());
+		}
+	}
+}
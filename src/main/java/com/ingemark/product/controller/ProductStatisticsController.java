@@ -0,0 +1,97 @@
+package com.ingemark.product.controller;
+
+import com.ingemark.product.controller.dto.PriceStatisticsDto;
+import com.ingemark.product.controller.dto.ProductStatisticsDto;
+import com.ingemark.product.hnb.service.ExchangeRateProvider;
+import com.ingemark.product.model.Money;
+import com.ingemark.product.statistics.CatalogStatistics;
+import com.ingemark.product.statistics.ProductColumnStore;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * ProductStatisticsController provides aggregate statistics over the whole catalog,
+ * computed from the in-memory ProductColumnStore instead of the database.
+ */
+@RestController
+@RequestMapping("/products")
+public class ProductStatisticsController {
+	/** Column store the statistics are computed from. */
+	private final ProductColumnStore columnStore;
+
+	/** Provider of the exchange rate used for the USD statistics. */
+	private final ExchangeRateProvider exchangeRateProvider;
+
+	/**
+	 * Constructs a ProductStatisticsController.
+	 *
+	 * @param columnStore the column store the statistics are computed from
+	 * @param exchangeRateProvider the provider of the exchange rate
+	 */
+	public ProductStatisticsController(ProductColumnStore columnStore, ExchangeRateProvider exchangeRateProvider) {
+		this.columnStore = columnStore;
+		this.exchangeRateProvider = exchangeRateProvider;
+	}
+
+	/**
+	 * Retrieves product counts, the availability ratio and min, max, average and percentiles
+	 * of the EUR prices and of the prices converted to USD.
+	 *
+	 * @param percentiles the percentiles to compute, each between 0 exclusive and 100 inclusive
+	 * @return the catalog statistics, otherwise an error response.
+	 */
+	@GetMapping("/statistics")
+	public ResponseEntity<?> getStatistics(@RequestParam(defaultValue = "50,90,99") double[] percentiles) {
+		try {
+			CatalogStatistics statistics = columnStore.computeStatistics(percentiles);
+			ProductStatisticsDto statisticsDto = new ProductStatisticsDto();
+			statisticsDto.setCount(statistics.getCount());
+			statisticsDto.setAvailableCount(statistics.getAvailableCount());
+			statisticsDto.setAvailabilityRatio(statistics.getCount() == 0
+					? 0 : (double) statistics.getAvailableCount() / statistics.getCount());
+			statisticsDto.setPricedCount(statistics.getPricedCount());
+			if (statistics.getPricedCount() > 0) {
+				long scaledRate = Money.toScaledRate(exchangeRateProvider.getEurToUsdRate());
+				statisticsDto.setPriceEur(toPriceStatistics(statistics, price -> price));
+				statisticsDto.setPriceUsd(toPriceStatistics(statistics, price -> Money.convert(price, scaledRate)));
+			}
+			return ResponseEntity.ok(statisticsDto);
+		} catch (IllegalArgumentException ex) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+		} catch (Exception ex) {
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+					.body("Failed to compute statistics: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Converts the EUR price aggregates to a DTO. Conversion with a non-negative rate preserves order,
+	 * so the converted min, max and percentiles are the min, max and percentiles of the converted prices.
+	 *
+	 * @param statistics the catalog statistics
+	 * @param conversion the conversion applied to each EUR amount in minor units
+	 * @return the price statistics DTO
+	 */
+	private PriceStatisticsDto toPriceStatistics(CatalogStatistics statistics, LongUnaryOperator conversion) {
+		PriceStatisticsDto priceStatisticsDto = new PriceStatisticsDto();
+		priceStatisticsDto.setMin(Money.fromMinorUnits(conversion.applyAsLong(statistics.getMinPriceEur())));
+		priceStatisticsDto.setMax(Money.fromMinorUnits(conversion.applyAsLong(statistics.getMaxPriceEur())));
+		priceStatisticsDto.setAverage(Money.fromMinorUnits(conversion.applyAsLong(statistics.getAveragePriceEur())));
+		Map<String, BigDecimal> percentilePrices = new LinkedHashMap<>();
+		for (int i = 0; i < statistics.getPercentiles().length; i++) {
+			String key = "p" + BigDecimal.valueOf(statistics.getPercentiles()[i]).stripTrailingZeros().toPlainString();
+			percentilePrices.put(key, Money.fromMinorUnits(conversion.applyAsLong(statistics.getPercentilePricesEur()[i])));
+		}
+		priceStatisticsDto.setPercentiles(percentilePrices);
+		return priceStatisticsDto;
+	}
+}
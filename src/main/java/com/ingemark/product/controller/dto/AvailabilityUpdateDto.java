@@ -0,0 +1,56 @@
+package com.ingemark.product.controller.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * AvailabilityUpdateDto is the request body of a bulk availability update.
+ * It contains the codes of the products to update and their target availability.
+ */
+public class AvailabilityUpdateDto {
+	/** Codes of the products to update. */
+	@NotEmpty(message = "Codes cannot be empty")
+	private List<String> codes;
+
+	/** Availability the products should be set to. */
+	@NotNull(message = "Available must be set")
+	private Boolean available;
+
+	/**
+	 * Gets the codes of the products to update.
+	 *
+	 * @return the product codes
+	 */
+	public List<String> getCodes() {
+		return codes;
+	}
+
+	/**
+	 * Sets the codes of the products to update.
+	 *
+	 * @param codes the product codes to set
+	 */
+	public void setCodes(List<String> codes) {
+		this.codes = codes;
+	}
+
+	/**
+	 * Gets the availability the products should be set to.
+	 *
+	 * @return the target availability
+	 */
+	public Boolean getAvailable() {
+		return available;
+	}
+
+	/**
+	 * Sets the availability the products should be set to.
+	 *
+	 * @param available the target availability to set
+	 */
+	public void setAvailable(Boolean available) {
+		this.available = available;
+	}
+}
@@ -0,0 +1,51 @@
+package com.ingemark.product.controller.dto;
+
+import java.util.List;
+
+/**
+ * AvailabilityUpdateResultDto is the response of a bulk availability update.
+ * It contains the number of updated products and the requested codes that were not found.
+ */
+public class AvailabilityUpdateResultDto {
+	/** Number of products whose availability was changed. */
+	private int updated;
+
+	/** Requested codes that do not belong to any product. */
+	private List<String> unknownCodes;
+
+	/**
+	 * Gets the number of products whose availability was changed.
+	 *
+	 * @return the updated count
+	 */
+	public int getUpdated() {
+		return updated;
+	}
+
+	/**
+	 * Sets the number of products whose availability was changed.
+	 *
+	 * @param updated the updated count to set
+	 */
+	public void setUpdated(int updated) {
+		this.updated = updated;
+	}
+
+	/**
+	 * Gets the requested codes that do not belong to any product.
+	 *
+	 * @return the unknown codes
+	 */
+	public List<String> getUnknownCodes() {
+		return unknownCodes;
+	}
+
+	/**
+	 * Sets the requested codes that do not belong to any product.
+	 *
+	 * @param unknownCodes the unknown codes to set
+	 */
+	public void setUnknownCodes(List<String> unknownCodes) {
+		this.unknownCodes = unknownCodes;
+	}
+}
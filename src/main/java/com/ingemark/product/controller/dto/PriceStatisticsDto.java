@@ -0,0 +1,93 @@
+package com.ingemark.product.controller.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * PriceStatisticsDto represents the price aggregates of the catalog in a single currency.
+ */
+public class PriceStatisticsDto {
+	/** Lowest price. */
+	private BigDecimal min;
+
+	/** Highest price. */
+	private BigDecimal max;
+
+	/** Average price. */
+	private BigDecimal average;
+
+	/** Price at each requested percentile, keyed by percentile, for example p50 or p99.9. */
+	private Map<String, BigDecimal> percentiles;
+
+	/**
+	 * Gets the lowest price.
+	 *
+	 * @return the lowest price
+	 */
+	public BigDecimal getMin() {
+		return min;
+	}
+
+	/**
+	 * Sets the lowest price.
+	 *
+	 * @param min the lowest price to set
+	 */
+	public void setMin(BigDecimal min) {
+		this.min = min;
+	}
+
+	/**
+	 * Gets the highest price.
+	 *
+	 * @return the highest price
+	 */
+	public BigDecimal getMax() {
+		return max;
+	}
+
+	/**
+	 * Sets the highest price.
+	 *
+	 * @param max the highest price to set
+	 */
+	public void setMax(BigDecimal max) {
+		this.max = max;
+	}
+
+	/**
+	 * Gets the average price.
+	 *
+	 * @return the average price
+	 */
+	public BigDecimal getAverage() {
+		return average;
+	}
+
+	/**
+	 * Sets the average price.
+	 *
+	 * @param average the average price to set
+	 */
+	public void setAverage(BigDecimal average) {
+		this.average = average;
+	}
+
+	/**
+	 * Gets the price at each requested percentile.
+	 *
+	 * @return the percentile prices
+	 */
+	public Map<String, BigDecimal> getPercentiles() {
+		return percentiles;
+	}
+
+	/**
+	 * Sets the price at each requested percentile.
+	 *
+	 * @param percentiles the percentile prices to set
+	 */
+	public void setPercentiles(Map<String, BigDecimal> percentiles) {
+		this.percentiles = percentiles;
+	}
+}
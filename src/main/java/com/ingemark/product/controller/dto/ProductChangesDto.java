@@ -0,0 +1,73 @@
+package com.ingemark.product.controller.dto;
+
+import java.util.List;
+
+/**
+ * ProductChangesDto is the response of a delta sync.
+ * It contains the products changed since the requested token, including availability changes,
+ * and the token to pass as since in the next request.
+ */
+public class ProductChangesDto {
+	/** Changed products, oldest change first. */
+	private List<ProductDto> products;
+
+	/** Token to request the changes after this response with. */
+	private String nextToken;
+
+	/** Whether more changes are available right away. */
+	private boolean hasMore;
+
+	/**
+	 * Gets the changed products.
+	 *
+	 * @return the changed products
+	 */
+	public List<ProductDto> getProducts() {
+		return products;
+	}
+
+	/**
+	 * Sets the changed products.
+	 *
+	 * @param products the changed products to set
+	 */
+	public void setProducts(List<ProductDto> products) {
+		this.products = products;
+	}
+
+	/**
+	 * Gets the token to request the following changes with.
+	 *
+	 * @return the next token
+	 */
+	public String getNextToken() {
+		return nextToken;
+	}
+
+	/**
+	 * Sets the token to request the following changes with.
+	 *
+	 * @param nextToken the next token to set
+	 */
+	public void setNextToken(String nextToken) {
+		this.nextToken = nextToken;
+	}
+
+	/**
+	 * Checks whether more changes are available right away.
+	 *
+	 * @return true if the next page should be fetched without waiting
+	 */
+	public boolean isHasMore() {
+		return hasMore;
+	}
+
+	/**
+	 * Sets whether more changes are available right away.
+	 *
+	 * @param hasMore true if more changes are available
+	 */
+	public void setHasMore(boolean hasMore) {
+		this.hasMore = hasMore;
+	}
+}
@@ -1,6 +1,7 @@
 package com.ingemark.product.controller.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
@@ -12,9 +13,16 @@ import java.math.BigDecimal;
  * between the client and server.
  */
 public class ProductDto {
-	/** Unique code for the product, must be exactly 10 characters long. */
+	/** Code taken by the GET /products/statistics route, which would shadow a product with this code. */
+	public static final String RESERVED_CODE = "statistics";
+
+	/** Message of the rejection of the reserved code. */
+	public static final String RESERVED_CODE_MESSAGE = "Code " + RESERVED_CODE + " is reserved";
+
+	/** Unique code for the product, must be exactly 10 characters long and not the reserved code. */
 	@NotBlank(message = "Code cannot be empty")
 	@Size(min = 10, max = 10, message = "Code must be exactly 10 characters long")
+	@Pattern(regexp = "^(?!" + RESERVED_CODE + "$).*$", message = RESERVED_CODE_MESSAGE)
 	private String code;
 
 	/** Name of the product, cannot be blank. */
@@ -0,0 +1,135 @@
+package com.ingemark.product.controller.dto;
+
+import java.util.List;
+
+/**
+ * ProductImportResultDto is the response of a catalog import.
+ * It contains the row counts and the first rejected lines with their reasons.
+ */
+public class ProductImportResultDto {
+	/** Number of data records read, excluding the header and empty lines. */
+	private long recordsRead;
+
+	/** Number of valid records loaded. */
+	private long recordsStaged;
+
+	/** Number of products inserted. */
+	private long inserted;
+
+	/** Number of existing products updated. */
+	private long updated;
+
+	/** Number of rejected records. */
+	private long rejected;
+
+	/** First rejected records, formatted as line number and reason. */
+	private List<String> rejectedLines;
+
+	/**
+	 * Gets the number of data records read.
+	 *
+	 * @return the record count
+	 */
+	public long getRecordsRead() {
+		return recordsRead;
+	}
+
+	/**
+	 * Sets the number of data records read.
+	 *
+	 * @param recordsRead the record count to set
+	 */
+	public void setRecordsRead(long recordsRead) {
+		this.recordsRead = recordsRead;
+	}
+
+	/**
+	 * Gets the number of valid records loaded.
+	 *
+	 * @return the staged count
+	 */
+	public long getRecordsStaged() {
+		return recordsStaged;
+	}
+
+	/**
+	 * Sets the number of valid records loaded.
+	 *
+	 * @param recordsStaged the staged count to set
+	 */
+	public void setRecordsStaged(long recordsStaged) {
+		this.recordsStaged = recordsStaged;
+	}
+
+	/**
+	 * Gets the number of products inserted.
+	 *
+	 * @return the inserted count
+	 */
+	public long getInserted() {
+		return inserted;
+	}
+
+	/**
+	 * Sets the number of products inserted.
+	 *
+	 * @param inserted the inserted count to set
+	 */
+	public void setInserted(long inserted) {
+		this.inserted = inserted;
+	}
+
+	/**
+	 * Gets the number of existing products updated.
+	 *
+	 * @return the updated count
+	 */
+	public long getUpdated() {
+		return updated;
+	}
+
+	/**
+	 * Sets the number of existing products updated.
+	 *
+	 * @param updated the updated count to set
+	 */
+	public void setUpdated(long updated) {
+		this.updated = updated;
+	}
+
+	/**
+	 * Gets the number of rejected records.
+	 *
+	 * @return the rejected count
+	 */
+	public long getRejected() {
+		return rejected;
+	}
+
+	/**
+	 * Sets the number of rejected records.
+	 *
+	 * @param rejected the rejected count to set
+	 */
+	public void setRejected(long rejected) {
+		this.rejected = rejected;
+	}
+
+	/**
+	 * Gets the first rejected records.
+	 *
+	 * @return the rejected lines
+	 */
+	public List<String> getRejectedLines() {
+		return rejectedLines;
+	}
+
+	/**
+	 * Sets the first rejected records.
+	 *
+	 * @param rejectedLines the rejected lines to set
+	 */
+	public void setRejectedLines(List<String> rejectedLines) {
+		this.rejectedLines = rejectedLines;
+	}
+}
@@ -0,0 +1,133 @@
+package com.ingemark.product.controller.dto;
+
+/**
+ * ProductStatisticsDto represents aggregate statistics over the whole catalog.
+ * Price statistics are null when no product has a price.
+ */
+public class ProductStatisticsDto {
+	/** Number of products. */
+	private int count;
+
+	/** Number of available products. */
+	private int availableCount;
+
+	/** Share of available products, between 0 and 1. */
+	private double availabilityRatio;
+
+	/** Number of products with a price. */
+	private int pricedCount;
+
+	/** Statistics of the EUR prices. */
+	private PriceStatisticsDto priceEur;
+
+	/** Statistics of the EUR prices converted to USD with the current exchange rate. */
+	private PriceStatisticsDto priceUsd;
+
+	/**
+	 * Gets the number of products.
+	 *
+	 * @return the product count
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Sets the number of products.
+	 *
+	 * @param count the product count to set
+	 */
+	public void setCount(int count) {
+		this.count = count;
+	}
+
+	/**
+	 * Gets the number of available products.
+	 *
+	 * @return the available product count
+	 */
+	public int getAvailableCount() {
+		return availableCount;
+	}
+
+	/**
+	 * Sets the number of available products.
+	 *
+	 * @param availableCount the available product count to set
+	 */
+	public void setAvailableCount(int availableCount) {
+		this.availableCount = availableCount;
+	}
+
+	/**
+	 * Gets the share of available products.
+	 *
+	 * @return the availability ratio
+	 */
+	public double getAvailabilityRatio() {
+		return availabilityRatio;
+	}
+
+	/**
+	 * Sets the share of available products.
+	 *
+	 * @param availabilityRatio the availability ratio to set
+	 */
+	public void setAvailabilityRatio(double availabilityRatio) {
+		this.availabilityRatio = availabilityRatio;
+	}
+
+	/**
+	 * Gets the number of products with a price.
+	 *
+	 * @return the priced product count
+	 */
+	public int getPricedCount() {
+		return pricedCount;
+	}
+
+	/**
+	 * Sets the number of products with a price.
+	 *
+	 * @param pricedCount the priced product count to set
+	 */
+	public void setPricedCount(int pricedCount) {
+		this.pricedCount = pricedCount;
+	}
+
+	/**
+	 * Gets the statistics of the EUR prices.
+	 *
+	 * @return the EUR price statistics
+	 */
+	public PriceStatisticsDto getPriceEur() {
+		return priceEur;
+	}
+
+	/**
+	 * Sets the statistics of the EUR prices.
+	 *
+	 * @param priceEur the EUR price statistics to set
+	 */
+	public void setPriceEur(PriceStatisticsDto priceEur) {
+		this.priceEur = priceEur;
+	}
+
+	/**
+	 * Gets the statistics of the converted USD prices.
+	 *
+	 * @return the USD price statistics
+	 */
+	public PriceStatisticsDto getPriceUsd() {
+		return priceUsd;
+	}
+
+	/**
+	 * Sets the statistics of the converted USD prices.
+	 *
+	 * @param priceUsd the USD price statistics to set
+	 */
+	public void setPriceUsd(PriceStatisticsDto priceUsd) {
+		this.priceUsd = priceUsd;
+	}
+}
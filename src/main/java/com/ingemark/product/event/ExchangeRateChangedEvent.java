@@ -0,0 +1,44 @@
+package com.ingemark.product.event;
+
+import java.math.BigDecimal;
+
+/**
+ * ExchangeRateChangedEvent is published when a freshly fetched EUR to USD exchange rate
+ * differs from the previously known one.
+ */
+public class ExchangeRateChangedEvent {
+	/** Previously known exchange rate, null if this is the first rate fetched. */
+	private final BigDecimal previousRate;
+
+	/** Newly fetched exchange rate. */
+	private final BigDecimal rate;
+
+	/**
+	 * Constructs an ExchangeRateChangedEvent.
+	 *
+	 * @param previousRate the previously known rate, or null if there was none
+	 * @param rate the newly fetched rate
+	 */
+	public ExchangeRateChangedEvent(BigDecimal previousRate, BigDecimal rate) {
+		this.previousRate = previousRate;
+		this.rate = rate;
+	}
+
+	/**
+	 * Gets the previously known exchange rate.
+	 *
+	 * @return the previous rate, or null if there was none
+	 */
+	public BigDecimal getPreviousRate() {
+		return previousRate;
+	}
+
+	/**
+	 * Gets the newly fetched exchange rate.
+	 *
+	 * @return the new rate
+	 */
+	public BigDecimal getRate() {
+		return rate;
+	}
+}
@@ -0,0 +1,44 @@
+package com.ingemark.product.event;
+
+import java.util.List;
+
+/**
+ * ProductAvailabilityChangedEvent is published by the ProductService after a bulk availability update.
+ * It carries the codes of the products that were matched by the update and their new availability.
+ */
+public class ProductAvailabilityChangedEvent {
+	/** Codes of the products matched by the update. */
+	private final List<String> codes;
+
+	/** Availability the products were set to. */
+	private final boolean available;
+
+	/**
+	 * Constructs a ProductAvailabilityChangedEvent.
+	 *
+	 * @param codes the codes of the matched products
+	 * @param available the availability the products were set to
+	 */
+	public ProductAvailabilityChangedEvent(List<String> codes, boolean available) {
+		this.codes = codes;
+		this.available = available;
+	}
+
+	/**
+	 * Gets the codes of the products matched by the update.
+	 *
+	 * @return the product codes
+	 */
+	public List<String> getCodes() {
+		return codes;
+	}
+
+	/**
+	 * Checks the availability the products were set to.
+	 *
+	 * @return true if the products were made available, false otherwise
+	 */
+	public boolean isAvailable() {
+		return available;
+	}
+}
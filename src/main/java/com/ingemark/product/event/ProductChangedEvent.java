@@ -0,0 +1,50 @@
+package com.ingemark.product.event;
+
+import com.ingemark.product.model.Product;
+
+/**
+ * ProductChangedEvent is published by the ProductService whenever a product is created or updated.
+ * Listeners use it to push changes to subscribers and to refresh locally held product data.
+ */
+public class ProductChangedEvent {
+	/** Kind of change that happened to the product. */
+	public enum Type {
+		CREATED,
+		UPDATED
+	}
+
+	/** Kind of change that happened to the product. */
+	private final Type type;
+
+	/** The product after the change was applied. */
+	private final Product product;
+
+	/**
+	 * Constructs a ProductChangedEvent for the given product.
+	 *
+	 * @param type the kind of change
+	 * @param product the product after the change was applied
+	 */
+	public ProductChangedEvent(Type type, Product product) {
+		this.type = type;
+		this.product = product;
+	}
+
+	/**
+	 * Gets the kind of change that happened to the product.
+	 *
+	 * @return the change type
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Gets the product after the change was applied.
+	 *
+	 * @return the changed product
+	 */
+	public Product getProduct() {
+		return product;
+	}
+}
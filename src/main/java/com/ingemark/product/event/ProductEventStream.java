@@ -0,0 +1,360 @@
+package com.ingemark.product.event;
+
+import com.ingemark.product.controller.mapper.ProductMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ProductEventStream fans product and exchange rate changes out to Server-Sent Events subscribers.
+ * Every subscriber has a bounded buffer that is drained by a small shared dispatcher pool, so a slow
+ * client never blocks the publisher. A subscriber whose buffer overflows is disconnected and is expected
+ * to reconnect with the Last-Event-ID header, which is resumed from a bounded replay buffer.
+ * Event ids are prefixed with an epoch that changes on every restart, so ids from a previous
+ * process are recognised and answered with a reset event instead of a silent gap.
+ */
+@Component
+public class ProductEventStream {
+	/** Logger for subscriber lifecycle problems. */
+	private static final Logger log = LoggerFactory.getLogger(ProductEventStream.class);
+
+	/** Event name telling the client to refetch the catalog because events could not be replayed. */
+	static final String RESET_EVENT = "reset";
+
+	/** Mapper for converting changed products to the same DTO the REST API returns. */
+	private final ProductMapper productMapper;
+
+	/** Maximum number of recent events kept for Last-Event-ID resume. */
+	private final int replaySize;
+
+	/** Maximum number of undelivered events buffered per subscriber. */
+	private final int subscriberBufferSize;
+
+	/** Time after which an idle subscription is completed and the client reconnects. */
+	private final long timeoutMillis;
+
+	/** Pool that drains subscriber buffers into their connections. */
+	private final ExecutorService dispatcher;
+
+	/** Prefix of every event id, unique to this process. */
+	private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+	/** Guards the replay buffer, the sequence and subscriber registration. */
+	private final Object lock = new Object();
+
+	/** Most recent events, oldest first. */
+	private final ArrayDeque<StreamEvent> replayBuffer = new ArrayDeque<>();
+
+	/** Sequence number of the last published event. */
+	private long sequence;
+
+	/** Currently connected subscribers. */
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Constructs a ProductEventStream.
+	 *
+	 * @param productMapper the mapper for converting products to DTOs
+	 * @param replaySize the number of recent events kept for resume
+	 * @param subscriberBufferSize the number of undelivered events buffered per subscriber
+	 * @param timeout the subscription timeout
+	 * @param dispatcherThreads the number of threads delivering events
+	 */
+	public ProductEventStream(ProductMapper productMapper,
+							  @Value("${product.events.replay-size:1000}") int replaySize,
+							  @Value("${product.events.subscriber-buffer-size:256}") int subscriberBufferSize,
+							  @Value("${product.events.timeout:PT30M}") Duration timeout,
+							  @Value("${product.events.dispatcher-threads:2}") int dispatcherThreads) {
+		this.productMapper = productMapper;
+		this.replaySize = replaySize;
+		this.subscriberBufferSize = subscriberBufferSize;
+		this.timeoutMillis = timeout.toMillis();
+		AtomicInteger threadCount = new AtomicInteger();
+		this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, runnable -> {
+			Thread thread = new Thread(runnable, "product-events-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Registers a new subscriber. If a Last-Event-ID is given, the events published after it are
+	 * delivered first, or a reset event if they are no longer available.
+	 *
+	 * @param lastEventId the id of the last event the client received, may be null
+	 * @return the emitter streaming events to the client
+	 */
+	public SseEmitter subscribe(String lastEventId) {
+		Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMillis), subscriberBufferSize);
+		subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+		subscriber.emitter.onTimeout(() -> close(subscriber));
+		subscriber.emitter.onError(ex -> close(subscriber));
+		synchronized (lock) {
+			if (lastEventId != null) {
+				replayAfter(lastEventId).forEach(subscriber::offer);
+			}
+			subscribers.add(subscriber);
+		}
+		dispatch(subscriber);
+		return subscriber.emitter;
+	}
+
+	/**
+	 * Pushes a created or updated product to all subscribers once the change is committed.
+	 *
+	 * @param event the product change
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		String name = event.getType() == ProductChangedEvent.Type.CREATED ? "product-created" : "product-updated";
+		publish(name, productMapper.mapTo(event.getProduct()));
+	}
+
+	/**
+	 * Pushes a bulk availability change to all subscribers once the change is committed.
+	 *
+	 * @param event the availability change
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductAvailabilityChanged(ProductAvailabilityChangedEvent event) {
+		publish("product-availability", event);
+	}
+
+	/**
+	 * Tells all subscribers that the catalog was imported and should be refetched.
+	 *
+	 * @param event the import
+	 */
+	@EventListener
+	public void onProductsImported(ProductsImportedEvent event) {
+		publish("catalog-imported", event);
+	}
+
+	/**
+	 * Passes on the changes made by another instance. A flush tells all subscribers to refetch the catalog
+	 * with a reset event, otherwise the changed codes are pushed so clients can refetch those products.
+	 *
+	 * @param event the invalidation
+	 */
+	@EventListener
+	public void onProductsInvalidated(ProductsInvalidatedEvent event) {
+		if (event.isFlush()) {
+			publish(RESET_EVENT, Map.of("reason", "catalog changed on another instance"));
+		} else {
+			publish("products-invalidated", Map.of("codes", event.getCodes()));
+		}
+	}
+
+	/**
+	 * Pushes a changed exchange rate to all subscribers.
+	 *
+	 * @param event the exchange rate change
+	 */
+	@EventListener
+	public void onExchangeRateChanged(ExchangeRateChangedEvent event) {
+		publish("exchange-rate", event);
+	}
+
+	/**
+	 * Publishes an event to all subscribers and keeps it for resume.
+	 * Subscribers whose buffer is full are disconnected.
+	 *
+	 * @param name the SSE event name
+	 * @param data the event payload, serialized as JSON
+	 */
+	void publish(String name, Object data) {
+		List<Subscriber> overflowed = new ArrayList<>();
+		synchronized (lock) {
+			StreamEvent event = new StreamEvent(++sequence, name, data);
+			replayBuffer.addLast(event);
+			if (replayBuffer.size() > replaySize) {
+				replayBuffer.removeFirst();
+			}
+			for (Subscriber subscriber : subscribers) {
+				if (!subscriber.offer(event)) {
+					overflowed.add(subscriber);
+				}
+			}
+		}
+		overflowed.forEach(this::close);
+		subscribers.forEach(this::dispatch);
+	}
+
+	/**
+	 * Collects the events published after the given id. Must be called while holding the lock.
+	 * Returns a single reset event if the id belongs to another process or the events were already evicted.
+	 *
+	 * @param lastEventId the id of the last event the client received
+	 * @return the events to replay
+	 */
+	List<StreamEvent> replayAfter(String lastEventId) {
+		long lastSequence = parseSequence(lastEventId);
+		if (lastSequence < 0 || lastSequence > sequence) {
+			return List.of(new StreamEvent(sequence, RESET_EVENT, Map.of("reason", "unknown event id")));
+		}
+		long oldestAvailable = replayBuffer.isEmpty() ? sequence + 1 : replayBuffer.peekFirst().sequence;
+		long missed = sequence - lastSequence;
+		if (lastSequence + 1 < oldestAvailable || missed > subscriberBufferSize) {
+			return List.of(new StreamEvent(sequence, RESET_EVENT, Map.of("reason", "events no longer available")));
+		}
+		return replayBuffer.stream()
+				.filter(event -> event.sequence > lastSequence)
+				.toList();
+	}
+
+	/**
+	 * Builds the SSE event id for a sequence number.
+	 *
+	 * @param sequence the sequence number
+	 * @return the event id
+	 */
+	String eventId(long sequence) {
+		return epoch + "-" + sequence;
+	}
+
+	/**
+	 * Extracts the sequence number from an event id issued by this process.
+	 *
+	 * @param eventId the event id
+	 * @return the sequence number, or -1 if the id was not issued by this process
+	 */
+	private long parseSequence(String eventId) {
+		int separator = eventId.indexOf('-');
+		if (separator < 0 || !epoch.equals(eventId.substring(0, separator))) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(eventId.substring(separator + 1));
+		} catch (NumberFormatException ex) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Schedules delivery of the subscriber's buffered events unless a delivery is already running.
+	 *
+	 * @param subscriber the subscriber to drain
+	 */
+	private void dispatch(Subscriber subscriber) {
+		if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+			dispatcher.execute(() -> drain(subscriber));
+		}
+	}
+
+	/**
+	 * Sends the subscriber's buffered events until the buffer is empty.
+	 *
+	 * @param subscriber the subscriber to drain
+	 */
+	private void drain(Subscriber subscriber) {
+		do {
+			StreamEvent event;
+			while ((event = subscriber.queue.poll()) != null) {
+				try {
+					subscriber.emitter.send(SseEmitter.event()
+							.id(eventId(event.sequence))
+							.name(event.name)
+							.data(event.data, MediaType.APPLICATION_JSON));
+				} catch (IOException | IllegalStateException ex) {
+					log.debug("Dropping product event subscriber: {}", ex.getMessage());
+					close(subscriber);
+					return;
+				}
+			}
+			subscriber.draining.set(false);
+		} while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+	}
+
+	/**
+	 * Removes the subscriber and completes its connection.
+	 *
+	 * @param subscriber the subscriber to close
+	 */
+	private void close(Subscriber subscriber) {
+		if (subscribers.remove(subscriber)) {
+			subscriber.queue.clear();
+			subscriber.emitter.complete();
+		}
+	}
+
+	/**
+	 * Gets the number of connected subscribers.
+	 *
+	 * @return the subscriber count
+	 */
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+	/**
+	 * Completes all subscriptions and stops the dispatcher on shutdown.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		subscribers.forEach(this::close);
+		dispatcher.shutdownNow();
+	}
+
+	/**
+	 * StreamEvent is a published event kept for delivery and replay.
+	 */
+	static final class StreamEvent {
+		/** Sequence number of the event within this process. */
+		final long sequence;
+
+		/** SSE event name. */
+		final String name;
+
+		/** Event payload. */
+		final Object data;
+
+		StreamEvent(long sequence, String name, Object data) {
+			this.sequence = sequence;
+			this.name = name;
+			this.data = data;
+		}
+	}
+
+	/**
+	 * Subscriber is a connected client together with its bounded buffer of undelivered events.
+	 */
+	private static final class Subscriber {
+		/** Connection to the client. */
+		final SseEmitter emitter;
+
+		/** Undelivered events. */
+		final ArrayBlockingQueue<StreamEvent> queue;
+
+		/** Whether a dispatcher thread is currently draining this subscriber. */
+		final AtomicBoolean draining = new AtomicBoolean();
+
+		Subscriber(SseEmitter emitter, int bufferSize) {
+			this.emitter = emitter;
+			this.queue = new ArrayBlockingQueue<>(bufferSize);
+		}
+
+		boolean offer(StreamEvent event) {
+			return queue.offer(event);
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.ingemark.product.event;
+
+/**
+ * ProductsImportedEvent is published after a catalog import was committed.
+ * Imports change arbitrary numbers of products at once, so listeners reload instead of applying single changes.
+ */
+public class ProductsImportedEvent {
+	/** Number of products inserted by the import. */
+	private final long inserted;
+
+	/** Number of existing products updated by the import. */
+	private final long updated;
+
+	/**
+	 * Constructs a ProductsImportedEvent.
+	 *
+	 * @param inserted the number of inserted products
+	 * @param updated the number of updated products
+	 */
+	public ProductsImportedEvent(long inserted, long updated) {
+		this.inserted = inserted;
+		this.updated = updated;
+	}
+
+	/**
+	 * Gets the number of products inserted by the import.
+	 *
+	 * @return the inserted count
+	 */
+	public long getInserted() {
+		return inserted;
+	}
+
+	/**
+	 * Gets the number of existing products updated by the import.
+	 *
+	 * @return the updated count
+	 */
+	public long getUpdated() {
+		return updated;
+	}
+}
@@ -0,0 +1,54 @@
+package com.ingemark.product.event;
+
+import java.util.List;
+
+/**
+ * ProductsInvalidatedEvent is published when another instance changed products.
+ * Listeners refresh their local copies of the given products, or of everything when a flush is requested
+ * because notifications from other instances may have been missed.
+ */
+public class ProductsInvalidatedEvent {
+	/** Codes of the changed products, empty for a flush. */
+	private final List<String> codes;
+
+	/** Whether all local product data has to be reloaded. */
+	private final boolean flush;
+
+	/**
+	 * Constructs a ProductsInvalidatedEvent.
+	 *
+	 * @param codes the codes of the changed products
+	 * @param flush whether all local product data has to be reloaded
+	 */
+	public ProductsInvalidatedEvent(List<String> codes, boolean flush) {
+		this.codes = codes;
+		this.flush = flush;
+	}
+
+	/**
+	 * Creates an event requesting a reload of all local product data.
+	 *
+	 * @return the flush event
+	 */
+	public static ProductsInvalidatedEvent flush() {
+		return new ProductsInvalidatedEvent(List.of(), true);
+	}
+
+	/**
+	 * Gets the codes of the changed products.
+	 *
+	 * @return the product codes, empty for a flush
+	 */
+	public List<String> getCodes() {
+		return codes;
+	}
+
+	/**
+	 * Checks whether all local product data has to be reloaded.
+	 *
+	 * @return true for a flush, false if only the given codes changed
+	 */
+	public boolean isFlush() {
+		return flush;
+	}
+}
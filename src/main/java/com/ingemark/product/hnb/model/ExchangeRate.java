@@ -0,0 +1,103 @@
+package com.ingemark.product.hnb.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * ExchangeRate is an exchange rate shared by all instances of the application.
+ * It is written by the single instance that refreshed it from the HNB API and read by all others.
+ */
+@Entity
+public class ExchangeRate {
+	/** Currency pair the rate converts between, for example EUR_USD. */
+	@Id
+	@Column(length = 7)
+	private String currencyPair;
+
+	/** Exchange rate as published by the HNB API. */
+	@Column(nullable = false, precision = 19, scale = 6)
+	private BigDecimal rate;
+
+	/** Time at which the rate was fetched from the HNB API. */
+	@Column(nullable = false)
+	private Instant fetchedAt;
+
+	/** Time at which an instance claimed the next refresh, null if no refresh is in progress. */
+	private Instant refreshClaimedAt;
+
+	/**
+	 * Gets the currency pair the rate converts between.
+	 *
+	 * @return the currency pair
+	 */
+	public String getCurrencyPair() {
+		return currencyPair;
+	}
+
+	/**
+	 * Sets the currency pair the rate converts between.
+	 *
+	 * @param currencyPair the currency pair to set
+	 */
+	public void setCurrencyPair(String currencyPair) {
+		this.currencyPair = currencyPair;
+	}
+
+	/**
+	 * Gets the exchange rate.
+	 *
+	 * @return the exchange rate
+	 */
+	public BigDecimal getRate() {
+		return rate;
+	}
+
+	/**
+	 * Sets the exchange rate.
+	 *
+	 * @param rate the exchange rate to set
+	 */
+	public void setRate(BigDecimal rate) {
+		this.rate = rate;
+	}
+
+	/**
+	 * Gets the time at which the rate was fetched from the HNB API.
+	 *
+	 * @return the fetch time
+	 */
+	public Instant getFetchedAt() {
+		return fetchedAt;
+	}
+
+	/**
+	 * Sets the time at which the rate was fetched from the HNB API.
+	 *
+	 * @param fetchedAt the fetch time to set
+	 */
+	public void setFetchedAt(Instant fetchedAt) {
+		this.fetchedAt = fetchedAt;
+	}
+
+	/**
+	 * Gets the time at which an instance claimed the next refresh.
+	 *
+	 * @return the claim time, null if no refresh is in progress
+	 */
+	public Instant getRefreshClaimedAt() {
+		return refreshClaimedAt;
+	}
+
+	/**
+	 * Sets the time at which an instance claimed the next refresh.
+	 *
+	 * @param refreshClaimedAt the claim time to set, null to release the claim
+	 */
+	public void setRefreshClaimedAt(Instant refreshClaimedAt) {
+		this.refreshClaimedAt = refreshClaimedAt;
+	}
+}
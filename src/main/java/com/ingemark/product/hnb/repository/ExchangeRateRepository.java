@@ -0,0 +1,43 @@
+package com.ingemark.product.hnb.repository;
+
+import com.ingemark.product.hnb.model.ExchangeRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+/**
+ * ExchangeRateRepository provides access to the exchange rates shared between instances.
+ */
+public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, String> {
+	/**
+	 * Tries to take a PostgreSQL advisory lock held until the current transaction ends.
+	 *
+	 * @param key the lock key
+	 * @return true if the lock was taken, false if another session holds it
+	 */
+	@Query(value = "select pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+	boolean tryAdvisoryXactLock(@Param("key") long key);
+
+	/**
+	 * Takes a PostgreSQL advisory lock held until the current transaction ends, waiting for it if necessary.
+	 *
+	 * @param key the lock key
+	 * @return always 1
+	 */
+	@Query(value = "select 1 from pg_advisory_xact_lock(:key)", nativeQuery = true)
+	int advisoryXactLock(@Param("key") long key);
+
+	/**
+	 * Records that an instance is fetching a new rate for the given currency pair.
+	 *
+	 * @param currencyPair the currency pair
+	 * @param claimedAt the claim time
+	 * @return the number of updated rates
+	 */
+	@Modifying
+	@Query("update ExchangeRate e set e.refreshClaimedAt = :claimedAt where e.currencyPair = :currencyPair")
+	int claimRefresh(@Param("currencyPair") String currencyPair, @Param("claimedAt") Instant claimedAt);
+}
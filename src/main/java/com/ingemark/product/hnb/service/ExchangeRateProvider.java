@@ -0,0 +1,15 @@
+package com.ingemark.product.hnb.service;
+
+import java.math.BigDecimal;
+
+/**
+ * ExchangeRateProvider supplies the EUR to USD exchange rate used for price conversion.
+ */
+public interface ExchangeRateProvider {
+	/**
+	 * Gets the current EUR to USD exchange rate.
+	 *
+	 * @return the current EUR to USD exchange rate
+	 */
+	BigDecimal getEurToUsdRate();
+}
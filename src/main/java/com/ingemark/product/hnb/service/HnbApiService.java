@@ -2,35 +2,125 @@ package com.ingemark.product.hnb.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingemark.product.event.ExchangeRateChangedEvent;
+import com.ingemark.product.jfr.HnbFetchEvent;
+import com.ingemark.product.timing.ServerTiming;
 import org.apache.logging.log4j.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * HnbApiService provides methods to fetch the current EUR to USD exchange rate
  * from the Croatian National Bank (HNB) API.
  * It uses RestTemplate to make HTTP requests and parse the response.
+ * This is the rate provider of the default local mode, in which every instance fetches its own rate.
  */
 @Service
-public class HnbApiService {
+public class HnbApiService implements ExchangeRateProvider {
 	/** URL for the HNB API to get the EUR to USD exchange rate. */
 	private static final String HNB_API_URL = "https://api.hnb.hr/tecajn-eur/v3?valuta=USD";
 
+	/** Logger for failed scheduled refreshes. */
+	private static final Logger log = LoggerFactory.getLogger(HnbApiService.class);
+
+	/** Marker of lastFetchedAt before the first successful fetch. */
+	private static final long NO_FETCH = Long.MIN_VALUE;
+
+	/** Publisher used to announce exchange rate changes. */
+	private final ApplicationEventPublisher eventPublisher;
+
+	/** Whether this instance refreshes its own rate, false when the rate is shared between instances. */
+	private final boolean localRefreshEnabled;
+
+	/** Last exchange rate fetched from the HNB API, null until the first fetch. */
+	private final AtomicReference<BigDecimal> lastRate = new AtomicReference<>();
+
+	/** Value of System.nanoTime() at the last successful fetch, NO_FETCH until the first one. */
+	private volatile long lastFetchedAt = NO_FETCH;
+
+	/**
+	 * Constructs a HnbApiService with the specified event publisher.
+	 *
+	 * @param eventPublisher the publisher used to announce exchange rate changes
+	 * @param rateMode the exchange rate mode, local or shared
+	 */
+	public HnbApiService(ApplicationEventPublisher eventPublisher,
+						 @Value("${hnb.rate.mode:local}") String rateMode) {
+		this.eventPublisher = eventPublisher;
+		this.localRefreshEnabled = !"shared".equals(rateMode);
+	}
+
 	/**
 	 * Fetches the current EUR to USD exchange rate from the HNB API.
 	 * The rate is returned as a BigDecimal after parsing the response.
+	 * An ExchangeRateChangedEvent is published if the rate differs from the last fetched one.
 	 *
 	 * @return the current EUR to USD exchange rate
 	 */
+	@Override
 	public BigDecimal getEurToUsdRate() {
-		RestTemplate restTemplate = new RestTemplate();
-		String exchangeRate = restTemplate.getForObject(HNB_API_URL, String.class);
-		if (Strings.isNotEmpty(exchangeRate)) {
-			String averageExchangeRate = getAverageExchangeRate(exchangeRate);
-			return new BigDecimal(averageExchangeRate.replace(",", "."));
+		BigDecimal rate = fetchEurToUsdRate();
+		BigDecimal previousRate = lastRate.getAndSet(rate);
+		if (previousRate == null || previousRate.compareTo(rate) != 0) {
+			eventPublisher.publishEvent(new ExchangeRateChangedEvent(previousRate, rate));
+		}
+		return rate;
+	}
+
+	/**
+	 * Fetches the current EUR to USD exchange rate from the HNB API without announcing changes.
+	 *
+	 * @return the current EUR to USD exchange rate
+	 */
+	public BigDecimal fetchEurToUsdRate() {
+		HnbFetchEvent event = new HnbFetchEvent();
+		event.begin();
+		BigDecimal rate = null;
+		try {
+			RestTemplate restTemplate = new RestTemplate();
+			long start = ServerTiming.start();
+			String exchangeRate = restTemplate.getForObject(HNB_API_URL, String.class);
+			ServerTiming.record(ServerTiming.HNB, start);
+			if (Strings.isNotEmpty(exchangeRate)) {
+				String averageExchangeRate = getAverageExchangeRate(exchangeRate);
+				rate = new BigDecimal(averageExchangeRate.replace(",", "."));
+				return rate;
+			}
+			throw new RuntimeException("Failed to fetch exchange rate from HNB API");
+		} finally {
+			long now = System.nanoTime();
+			long previousFetchedAt = lastFetchedAt;
+			event.finish(rate != null, rate == null ? 0 : rate.doubleValue(),
+					previousFetchedAt == NO_FETCH ? 0 : now - previousFetchedAt);
+			if (rate != null) {
+				lastFetchedAt = now;
+			}
+		}
+	}
+
+	/**
+	 * Periodically fetches the exchange rate so that rate changes are announced
+	 * even when no product requests are being served. Skipped in shared mode,
+	 * where the SharedExchangeRateService refreshes the rate for the whole cluster.
+	 */
+	@Scheduled(initialDelayString = "${hnb.rate.refresh-interval:PT15M}",
+			fixedDelayString = "${hnb.rate.refresh-interval:PT15M}")
+	public void refreshEurToUsdRate() {
+		if (!localRefreshEnabled) {
+			return;
+		}
+		try {
+			getEurToUsdRate();
+		} catch (RuntimeException ex) {
+			log.warn("Scheduled HNB exchange rate refresh failed: {}", ex.getMessage());
 		}
-		throw new RuntimeException("Failed to fetch exchange rate from HNB API");
 	}
 
 	/**
@@ -0,0 +1,362 @@
+package com.ingemark.product.hnb.service;
+
+import com.ingemark.product.event.ExchangeRateChangedEvent;
+import com.ingemark.product.hnb.model.ExchangeRate;
+import com.ingemark.product.hnb.repository.ExchangeRateRepository;
+import com.ingemark.product.jfr.ExchangeRateCacheEvent;
+import com.ingemark.product.jfr.ExchangeRateLookupEvent;
+import com.ingemark.product.timing.ServerTiming;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.FlightRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SharedExchangeRateService keeps the EUR to USD exchange rate in a table shared by all instances,
+ * so every node prices products with the same rate. On every refresh tick the instances race for a
+ * PostgreSQL advisory lock; the winner claims the refresh only if nobody refreshed the rate during the
+ * current interval and no other claim is in progress, so there is a single outbound call per refresh
+ * across the cluster. The HNB API is called after the claim is committed, so no connection or
+ * transaction is held during the HTTP call.
+ * All instances read the shared rate and cache it locally for a short time.
+ * Enabled with {@code hnb.rate.mode=shared}.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "hnb.rate.mode", havingValue = "shared")
+public class SharedExchangeRateService implements ExchangeRateProvider {
+	/** Logger for failed refreshes and reads. */
+	private static final Logger log = LoggerFactory.getLogger(SharedExchangeRateService.class);
+
+	/** Key of the shared EUR to USD rate. */
+	static final String EUR_USD = "EUR_USD";
+
+	/** Advisory lock key electing the instance that refreshes the rate. */
+	static final long REFRESH_LOCK_KEY = 0x484E_4252L;
+
+	/** Repository holding the shared rate. */
+	private final ExchangeRateRepository repository;
+
+	/** Service fetching the rate from the HNB API. */
+	private final HnbApiService hnbApiService;
+
+	/** Publisher used to announce exchange rate changes seen by this instance. */
+	private final ApplicationEventPublisher eventPublisher;
+
+	/** Transaction scoping the advisory lock. */
+	private final TransactionTemplate transactionTemplate;
+
+	/** A rate younger than this is considered fresh and is not fetched again. */
+	private final Duration freshness;
+
+	/** A refresh claim older than this is considered abandoned and may be taken over. */
+	private final Duration claimTimeout;
+
+	/** Time for which the shared rate is cached locally. */
+	private final long cacheTtlNanos;
+
+	/** Locally cached shared rate, null until first read. */
+	private volatile CachedRate cached;
+
+	/** Number of lookups answered from the local cache. */
+	private final LongAdder cacheHits = new LongAdder();
+
+	/** Number of lookups that read the shared rate. */
+	private final LongAdder cacheMisses = new LongAdder();
+
+	/** Hook emitting the periodic ExchangeRateCacheEvent, kept to unregister it. */
+	private final Runnable cacheEventHook = this::emitCacheEvent;
+
+	/**
+	 * Constructs a SharedExchangeRateService.
+	 *
+	 * @param repository the repository holding the shared rate
+	 * @param hnbApiService the service fetching the rate from the HNB API
+	 * @param eventPublisher the publisher used to announce exchange rate changes
+	 * @param transactionManager the transaction manager scoping the advisory lock
+	 * @param refreshInterval the interval between refreshes
+	 * @param cacheTtl the time for which the shared rate is cached locally
+	 */
+	public SharedExchangeRateService(ExchangeRateRepository repository, HnbApiService hnbApiService,
+									 ApplicationEventPublisher eventPublisher,
+									 PlatformTransactionManager transactionManager,
+									 @Value("${hnb.rate.refresh-interval:PT15M}") Duration refreshInterval,
+									 @Value("${hnb.rate.shared.cache-ttl:PT30S}") Duration cacheTtl) {
+		this.repository = repository;
+		this.hnbApiService = hnbApiService;
+		this.eventPublisher = eventPublisher;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.freshness = refreshInterval.minus(refreshInterval.dividedBy(10));
+		this.claimTimeout = refreshInterval.dividedBy(10);
+		this.cacheTtlNanos = cacheTtl.toNanos();
+	}
+
+	/**
+	 * Registers the periodic ExchangeRateCacheEvent.
+	 */
+	@PostConstruct
+	public void registerCacheEvent() {
+		FlightRecorder.addPeriodicEvent(ExchangeRateCacheEvent.class, cacheEventHook);
+	}
+
+	/**
+	 * Unregisters the periodic ExchangeRateCacheEvent on shutdown.
+	 */
+	@PreDestroy
+	public void unregisterCacheEvent() {
+		FlightRecorder.removePeriodicEvent(cacheEventHook);
+	}
+
+	/**
+	 * Gets the shared EUR to USD exchange rate, from the local cache if it is recent enough.
+	 * If the shared table has no rate yet, this instance fetches the rate from the HNB API and stores it.
+	 * Cache hits are only counted, misses are also recorded as ExchangeRateLookupEvent.
+	 *
+	 * @return the current EUR to USD exchange rate
+	 */
+	@Override
+	public BigDecimal getEurToUsdRate() {
+		CachedRate current = cached;
+		if (current != null && System.nanoTime() - current.loadedAt < cacheTtlNanos) {
+			cacheHits.increment();
+			return current.rate;
+		}
+		cacheMisses.increment();
+		ExchangeRateLookupEvent event = new ExchangeRateLookupEvent();
+		event.begin();
+		try {
+			CachedRate loaded = reload();
+			event.setRateAge(loaded.age());
+			return loaded.rate;
+		} catch (RuntimeException ex) {
+			event.fail(ex);
+			throw ex;
+		} finally {
+			event.finish();
+		}
+	}
+
+	/**
+	 * Emits the cache counters and the age of the cached rate, called by Flight Recorder once per period.
+	 */
+	void emitCacheEvent() {
+		ExchangeRateCacheEvent event = new ExchangeRateCacheEvent();
+		CachedRate current = cached;
+		event.setHits(cacheHits.sum());
+		event.setMisses(cacheMisses.sum());
+		event.setRateAge(current == null ? 0 : current.age());
+		event.commit();
+	}
+
+	/**
+	 * Reads the shared rate into the local cache. Concurrent callers wait for a single read.
+	 *
+	 * @return the shared rate
+	 */
+	private synchronized CachedRate reload() {
+		CachedRate current = cached;
+		if (current != null && System.nanoTime() - current.loadedAt < cacheTtlNanos) {
+			return current;
+		}
+		Optional<ExchangeRate> stored;
+		try {
+			long dbStart = ServerTiming.start();
+			stored = repository.findById(EUR_USD);
+			ServerTiming.record(ServerTiming.DB, dbStart);
+		} catch (RuntimeException ex) {
+			if (current == null) {
+				throw ex;
+			}
+			log.warn("Failed to read shared exchange rate, using cached value: {}", ex.getMessage());
+			CachedRate kept = new CachedRate(current.rate, current.fetchedAt, System.nanoTime());
+			cached = kept;
+			return kept;
+		}
+		CachedRate loaded = stored
+				.map(exchangeRate -> new CachedRate(exchangeRate.getRate(), exchangeRate.getFetchedAt(), System.nanoTime()))
+				.orElseGet(this::fetchInitialRate);
+		replaceCached(current, loaded);
+		return loaded;
+	}
+
+	/**
+	 * Reads the shared rate into the local cache regardless of its age, so a rate stored by another
+	 * instance is announced even if no request asks for it. Nothing is fetched for an empty table.
+	 */
+	private synchronized void reloadStored() {
+		CachedRate current = cached;
+		repository.findById(EUR_USD)
+				.map(exchangeRate -> new CachedRate(exchangeRate.getRate(), exchangeRate.getFetchedAt(), System.nanoTime()))
+				.ifPresent(loaded -> replaceCached(current, loaded));
+	}
+
+	/**
+	 * Caches a newly read rate and publishes an ExchangeRateChangedEvent if it differs from the previous one.
+	 *
+	 * @param current the previously cached rate, or null
+	 * @param loaded the newly read rate
+	 */
+	private void replaceCached(CachedRate current, CachedRate loaded) {
+		cached = loaded;
+		BigDecimal rate = loaded.rate;
+		if (current == null || current.rate.compareTo(rate) != 0) {
+			eventPublisher.publishEvent(new ExchangeRateChangedEvent(current == null ? null : current.rate, rate));
+		}
+	}
+
+	/**
+	 * Fetches the rate from the HNB API for an empty shared table and stores it for the other instances.
+	 * The fetched rate is used even if it cannot be stored.
+	 *
+	 * @return the rate stored in the shared table, or the fetched rate if storing it failed
+	 */
+	private CachedRate fetchInitialRate() {
+		BigDecimal rate = hnbApiService.fetchEurToUsdRate();
+		Instant fetchedAt = Instant.now();
+		try {
+			storeRate(rate, fetchedAt);
+			Optional<ExchangeRate> stored = repository.findById(EUR_USD);
+			if (stored.isPresent()) {
+				return new CachedRate(stored.get().getRate(), stored.get().getFetchedAt(), System.nanoTime());
+			}
+		} catch (RuntimeException ex) {
+			log.warn("Failed to store exchange rate fetched from HNB: {}", ex.getMessage());
+		}
+		return new CachedRate(rate, fetchedAt, System.nanoTime());
+	}
+
+	/**
+	 * Refreshes the shared rate from the HNB API if this instance wins the advisory lock
+	 * and the stored rate is older than the refresh interval. The refresh is claimed in one short
+	 * transaction and the fetched rate is stored in another, the HNB API is called in between.
+	 * Every instance then reads the shared rate, so a changed rate is announced on all of them,
+	 * whether this instance or another one stored it.
+	 *
+	 * @return true if this instance refreshed the rate, false otherwise
+	 */
+	@Scheduled(fixedDelayString = "${hnb.rate.refresh-interval:PT15M}")
+	public boolean refreshEurToUsdRate() {
+		boolean refreshed = false;
+		try {
+			if (Boolean.TRUE.equals(transactionTemplate.execute(status -> claimRefresh()))) {
+				refreshed = storeRate(hnbApiService.fetchEurToUsdRate(), Instant.now());
+			}
+		} catch (RuntimeException ex) {
+			log.warn("Shared HNB exchange rate refresh failed: {}", ex.getMessage());
+		}
+		try {
+			reloadStored();
+		} catch (RuntimeException ex) {
+			log.warn("Failed to read shared exchange rate: {}", ex.getMessage());
+		}
+		return refreshed;
+	}
+
+	/**
+	 * Claims the next refresh if this instance wins the advisory lock, the stored rate is stale
+	 * and no other instance claimed the refresh within the claim timeout.
+	 * An empty table cannot be claimed, every instance seeing it may fetch the first rate.
+	 * Must run in a transaction.
+	 *
+	 * @return true if this instance should fetch the rate, false otherwise
+	 */
+	private boolean claimRefresh() {
+		if (!repository.tryAdvisoryXactLock(REFRESH_LOCK_KEY)) {
+			return false;
+		}
+		Optional<ExchangeRate> stored = repository.findById(EUR_USD);
+		Instant now = Instant.now();
+		if (stored.isEmpty()) {
+			return true;
+		}
+		ExchangeRate exchangeRate = stored.get();
+		if (isFresh(exchangeRate, now)) {
+			return false;
+		}
+		Instant claimedAt = exchangeRate.getRefreshClaimedAt();
+		if (claimedAt != null && claimedAt.plus(claimTimeout).isAfter(now)) {
+			return false;
+		}
+		repository.claimRefresh(EUR_USD, now);
+		return true;
+	}
+
+	/**
+	 * Stores a rate fetched from the HNB API and releases the refresh claim,
+	 * unless another instance stored a fresh rate in the meantime.
+	 *
+	 * @param rate the fetched rate
+	 * @param fetchedAt the time the rate was fetched
+	 * @return true if the rate was stored, false otherwise
+	 */
+	private boolean storeRate(BigDecimal rate, Instant fetchedAt) {
+		return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+			repository.advisoryXactLock(REFRESH_LOCK_KEY);
+			ExchangeRate exchangeRate = repository.findById(EUR_USD).orElseGet(ExchangeRate::new);
+			if (isFresh(exchangeRate, Instant.now())) {
+				return false;
+			}
+			exchangeRate.setCurrencyPair(EUR_USD);
+			exchangeRate.setRate(rate);
+			exchangeRate.setFetchedAt(fetchedAt);
+			exchangeRate.setRefreshClaimedAt(null);
+			repository.save(exchangeRate);
+			return true;
+		}));
+	}
+
+	/**
+	 * Checks whether a stored rate was refreshed during the current interval.
+	 *
+	 * @param exchangeRate the stored rate
+	 * @param now the current time
+	 * @return true if the rate does not need to be fetched again
+	 */
+	private boolean isFresh(ExchangeRate exchangeRate, Instant now) {
+		return exchangeRate.getFetchedAt() != null && exchangeRate.getFetchedAt().plus(freshness).isAfter(now);
+	}
+
+	/**
+	 * CachedRate is the shared rate together with the time it was fetched and read.
+	 */
+	private static final class CachedRate {
+		/** Shared exchange rate. */
+		final BigDecimal rate;
+
+		/** Time the rate was fetched from the HNB API, null if unknown. */
+		final Instant fetchedAt;
+
+		/** Value of System.nanoTime() when the rate was read. */
+		final long loadedAt;
+
+		CachedRate(BigDecimal rate, Instant fetchedAt, long loadedAt) {
+			this.rate = rate;
+			this.fetchedAt = fetchedAt;
+			this.loadedAt = loadedAt;
+		}
+
+		/**
+		 * Gets the time since the rate was fetched from the HNB API.
+		 *
+		 * @return the age in nanoseconds, 0 if unknown
+		 */
+		long age() {
+			return fetchedAt == null ? 0 : Duration.between(fetchedAt, Instant.now()).toNanos();
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package com.ingemark.product.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CsvRecordReader stream-parses RFC 4180 CSV from a channel using fixed-size NIO buffers,
+ * so memory use does not depend on the size of the input. Quoted fields may contain commas,
+ * escaped quotes and line breaks. Records longer than the configured limit are skipped and
+ * reported as malformed instead of being buffered.
+ */
+public class CsvRecordReader implements Closeable {
+	/** Size of the byte and char buffers. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Channel the CSV is read from. */
+	private final ReadableByteChannel channel;
+
+	/** Decoder turning the UTF-8 input into characters; invalid bytes are replaced. */
+	private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+	/** Raw bytes read from the channel. */
+	private final ByteBuffer bytes;
+
+	/** Decoded characters not yet parsed. */
+	private final CharBuffer chars;
+
+	/** Maximum number of characters of a single record. */
+	private final int maxRecordLength;
+
+	/** Whether the channel is exhausted. */
+	private boolean endOfInput;
+
+	/** Whether all input has been decoded and the decoder flushed. */
+	private boolean decoderFlushed;
+
+	/** Number of the line currently being parsed, starting at 1. */
+	private long lineNumber = 1;
+
+	/**
+	 * Constructs a CsvRecordReader.
+	 *
+	 * @param channel the channel to read from
+	 * @param maxRecordLength the maximum number of characters of a single record
+	 */
+	public CsvRecordReader(ReadableByteChannel channel, int maxRecordLength) {
+		this(channel, maxRecordLength, BUFFER_SIZE);
+	}
+
+	/**
+	 * Constructs a CsvRecordReader with the given buffer size.
+	 *
+	 * @param channel the channel to read from
+	 * @param maxRecordLength the maximum number of characters of a single record
+	 * @param bufferSize the size of the byte and char buffers
+	 */
+	CsvRecordReader(ReadableByteChannel channel, int maxRecordLength, int bufferSize) {
+		this.channel = channel;
+		this.maxRecordLength = maxRecordLength;
+		this.bytes = ByteBuffer.allocate(bufferSize);
+		this.chars = CharBuffer.allocate(bufferSize);
+		this.chars.flip();
+	}
+
+	/**
+	 * Reads the next record.
+	 *
+	 * @return the next record, or null at the end of the input
+	 * @throws IOException if reading from the channel fails
+	 */
+	public CsvRecord next() throws IOException {
+		long startLine = lineNumber;
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean inQuotes = false;
+		boolean afterQuote = false;
+		boolean started = false;
+		int length = 0;
+		String error = null;
+		while (true) {
+			if (!chars.hasRemaining() && !fill()) {
+				if (!started) {
+					return null;
+				}
+				if (inQuotes && !afterQuote) {
+					error = "Unterminated quoted field";
+				}
+				fields.add(field.toString());
+				return new CsvRecord(startLine, error == null ? fields : null, error);
+			}
+			char c = chars.get();
+			started = true;
+			if (c == '\n') {
+				lineNumber++;
+			}
+			if (++length > maxRecordLength && error == null) {
+				error = "Record longer than " + maxRecordLength + " characters";
+				field.setLength(0);
+				fields.clear();
+			}
+			if (afterQuote) {
+				afterQuote = false;
+				if (c == '"') {
+					append(field, c, error);
+					continue;
+				}
+				inQuotes = false;
+			}
+			if (inQuotes) {
+				if (c == '"') {
+					afterQuote = true;
+				} else {
+					append(field, c, error);
+				}
+			} else if (c == '"' && field.length() == 0) {
+				inQuotes = true;
+			} else if (c == ',') {
+				if (error == null) {
+					fields.add(field.toString());
+				}
+				field.setLength(0);
+			} else if (c == '\n') {
+				int end = field.length();
+				if (end > 0 && field.charAt(end - 1) == '\r') {
+					field.setLength(end - 1);
+				}
+				fields.add(field.toString());
+				return new CsvRecord(startLine, error == null ? fields : null, error);
+			} else {
+				append(field, c, error);
+			}
+		}
+	}
+
+	/**
+	 * Appends a character to the current field unless the record is already rejected.
+	 */
+	private static void append(StringBuilder field, char c, String error) {
+		if (error == null) {
+			field.append(c);
+		}
+	}
+
+	/**
+	 * Refills the char buffer from the channel.
+	 *
+	 * @return true if characters are available, false at the end of the input
+	 * @throws IOException if reading from the channel fails
+	 */
+	private boolean fill() throws IOException {
+		chars.clear();
+		try {
+			while (chars.position() == 0 && !decoderFlushed) {
+				if (!endOfInput && channel.read(bytes) < 0) {
+					endOfInput = true;
+				}
+				bytes.flip();
+				CoderResult result = decoder.decode(bytes, chars, endOfInput);
+				bytes.compact();
+				if (endOfInput && result.isUnderflow()) {
+					decoder.flush(chars);
+					decoderFlushed = true;
+				}
+			}
+		} finally {
+			chars.flip();
+		}
+		return chars.hasRemaining();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * CsvRecord is a parsed record, or the reason it could not be parsed.
+	 */
+	public static final class CsvRecord {
+		/** Line on which the record starts. */
+		private final long lineNumber;
+
+		/** Fields of the record, null if it is malformed. */
+		private final List<String> fields;
+
+		/** Reason the record is malformed, null if it is well formed. */
+		private final String error;
+
+		CsvRecord(long lineNumber, List<String> fields, String error) {
+			this.lineNumber = lineNumber;
+			this.fields = fields;
+			this.error = error;
+		}
+
+		/**
+		 * Gets the line on which the record starts.
+		 *
+		 * @return the line number, starting at 1
+		 */
+		public long getLineNumber() {
+			return lineNumber;
+		}
+
+		/**
+		 * Gets the fields of the record.
+		 *
+		 * @return the fields, or null if the record is malformed
+		 */
+		public List<String> getFields() {
+			return fields;
+		}
+
+		/**
+		 * Gets the reason the record is malformed.
+		 *
+		 * @return the error, or null if the record is well formed
+		 */
+		public String getError() {
+			return error;
+		}
+	}
+}
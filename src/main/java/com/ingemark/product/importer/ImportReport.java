@@ -0,0 +1,157 @@
+package com.ingemark.product.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ImportReport describes the outcome of a catalog import.
+ * Only the first rejected lines are kept with their reasons; all of them are counted.
+ */
+public class ImportReport {
+	/** Maximum number of rejected lines kept with their reasons. */
+	static final int MAX_REPORTED_REJECTIONS = 100;
+
+	/** Number of data records read, excluding the header and empty lines. */
+	private long recordsRead;
+
+	/** Number of valid records loaded into the staging table. */
+	private long recordsStaged;
+
+	/** Number of products inserted. */
+	private long inserted;
+
+	/** Number of existing products updated, not counting products whose values were already the same. */
+	private long updated;
+
+	/** Number of rejected records. */
+	private long rejectedCount;
+
+	/** First rejected records with their reasons. */
+	private final List<RejectedLine> rejectedLines = new ArrayList<>();
+
+	/**
+	 * Counts a record read from the input.
+	 */
+	void recordRead() {
+		recordsRead++;
+	}
+
+	/**
+	 * Counts a record loaded into the staging table.
+	 */
+	void recordStaged() {
+		recordsStaged++;
+	}
+
+	/**
+	 * Counts a rejected record and keeps its reason if the limit is not reached.
+	 *
+	 * @param lineNumber the line on which the record starts
+	 * @param reason the reason the record was rejected
+	 */
+	void reject(long lineNumber, String reason) {
+		rejectedCount++;
+		if (rejectedLines.size() < MAX_REPORTED_REJECTIONS) {
+			rejectedLines.add(new RejectedLine(lineNumber, reason));
+		}
+	}
+
+	/**
+	 * Sets the result of merging the staging table into the product table.
+	 *
+	 * @param inserted the number of inserted products
+	 * @param updated the number of updated products
+	 */
+	void merged(long inserted, long updated) {
+		this.inserted = inserted;
+		this.updated = updated;
+	}
+
+	/**
+	 * Gets the number of data records read.
+	 *
+	 * @return the record count
+	 */
+	public long getRecordsRead() {
+		return recordsRead;
+	}
+
+	/**
+	 * Gets the number of valid records loaded into the staging table.
+	 *
+	 * @return the staged count
+	 */
+	public long getRecordsStaged() {
+		return recordsStaged;
+	}
+
+	/**
+	 * Gets the number of products inserted.
+	 *
+	 * @return the inserted count
+	 */
+	public long getInserted() {
+		return inserted;
+	}
+
+	/**
+	 * Gets the number of existing products updated.
+	 *
+	 * @return the updated count
+	 */
+	public long getUpdated() {
+		return updated;
+	}
+
+	/**
+	 * Gets the number of rejected records.
+	 *
+	 * @return the rejected count
+	 */
+	public long getRejectedCount() {
+		return rejectedCount;
+	}
+
+	/**
+	 * Gets the first rejected records with their reasons.
+	 *
+	 * @return the rejected lines
+	 */
+	public List<RejectedLine> getRejectedLines() {
+		return rejectedLines;
+	}
+
+	/**
+	 * RejectedLine is a rejected record and the reason it was rejected.
+	 */
+	public static final class RejectedLine {
+		/** Line on which the record starts. */
+		private final long lineNumber;
+
+		/** Reason the record was rejected. */
+		private final String reason;
+
+		RejectedLine(long lineNumber, String reason) {
+			this.lineNumber = lineNumber;
+			this.reason = reason;
+		}
+
+		/**
+		 * Gets the line on which the record starts.
+		 *
+		 * @return the line number
+		 */
+		public long getLineNumber() {
+			return lineNumber;
+		}
+
+		/**
+		 * Gets the reason the record was rejected.
+		 *
+		 * @return the reason
+		 */
+		public String getReason() {
+			return reason;
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.ingemark.product.importer;
+
+import com.ingemark.product.controller.dto.ProductDto;
+import com.ingemark.product.model.Money;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * ProductCsvRow is a validated product row of the supplier CSV feed.
+ * Expected columns are code, name, price_eur and is_available, applying the same rules as the REST API.
+ */
+final class ProductCsvRow {
+	/** Number of columns of a row. */
+	static final int COLUMN_COUNT = 4;
+
+	/** Unique code of the product. */
+	final String code;
+
+	/** Name of the product. */
+	final String name;
+
+	/** Price in EUR, rounded to two decimals. */
+	final BigDecimal priceEur;
+
+	/** Availability of the product. */
+	final boolean available;
+
+	private ProductCsvRow(String code, String name, BigDecimal priceEur, boolean available) {
+		this.code = code;
+		this.name = name;
+		this.priceEur = priceEur;
+		this.available = available;
+	}
+
+	/**
+	 * Checks whether the fields are the header row.
+	 *
+	 * @param fields the fields of a record
+	 * @return true if the record is the header row, false otherwise
+	 */
+	static boolean isHeader(List<String> fields) {
+		return !fields.isEmpty() && fields.get(0).trim().equalsIgnoreCase("code");
+	}
+
+	/**
+	 * Checks whether the fields are an empty line.
+	 *
+	 * @param fields the fields of a record
+	 * @return true if the record is an empty line, false otherwise
+	 */
+	static boolean isBlank(List<String> fields) {
+		return fields.size() == 1 && fields.get(0).isBlank();
+	}
+
+	/**
+	 * Validates and converts the fields of a record.
+	 *
+	 * @param fields the fields of a record
+	 * @return the product row
+	 * @throws IllegalArgumentException with the rejection reason if the fields are invalid
+	 */
+	static ProductCsvRow parse(List<String> fields) {
+		if (fields.size() != COLUMN_COUNT) {
+			throw new IllegalArgumentException("Expected " + COLUMN_COUNT + " columns but found " + fields.size());
+		}
+		String code = fields.get(0).trim();
+		if (code.length() != 10) {
+			throw new IllegalArgumentException("Code must be exactly 10 characters long");
+		}
+		if (code.equals(ProductDto.RESERVED_CODE)) {
+			throw new IllegalArgumentException(ProductDto.RESERVED_CODE_MESSAGE);
+		}
+		String name = fields.get(1).trim();
+		if (name.isEmpty()) {
+			throw new IllegalArgumentException("Name cannot be empty");
+		}
+		if (name.length() > 255) {
+			throw new IllegalArgumentException("Name cannot be longer than 255 characters");
+		}
+		BigDecimal priceEur;
+		try {
+			priceEur = new BigDecimal(fields.get(2).trim()).setScale(Money.MINOR_UNIT_SCALE, Money.ROUNDING);
+		} catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("Price must be a decimal number");
+		}
+		if (priceEur.signum() < 0) {
+			throw new IllegalArgumentException("Price cannot be negative");
+		}
+		if (priceEur.precision() > 38) {
+			throw new IllegalArgumentException("Price is too large");
+		}
+		return new ProductCsvRow(code, name, priceEur, parseAvailability(fields.get(3)));
+	}
+
+	/**
+	 * Parses an availability flag.
+	 *
+	 * @param value the flag, one of true, false, yes, no, 1 or 0
+	 * @return the availability
+	 */
+	private static boolean parseAvailability(String value) {
+		return switch (value.trim().toLowerCase(Locale.ROOT)) {
+			case "true", "yes", "1" -> true;
+			case "false", "no", "0" -> false;
+			default -> throw new IllegalArgumentException("Availability must be true or false");
+		};
+	}
+
+	/**
+	 * Appends the row as a line of the CSV format read by PostgreSQL COPY.
+	 *
+	 * @param lineNumber the line number of the row in the source file
+	 * @param target the builder to append to
+	 */
+	void appendCopyLine(long lineNumber, StringBuilder target) {
+		target.append(lineNumber).append(',');
+		appendQuoted(code, target);
+		target.append(',');
+		appendQuoted(name, target);
+		target.append(',').append(priceEur.toPlainString())
+				.append(',').append(available ? 't' : 'f')
+				.append('\n');
+	}
+
+	private static void appendQuoted(String value, StringBuilder target) {
+		target.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"') {
+				target.append('"');
+			}
+			target.append(c);
+		}
+		target.append('"');
+	}
+}
@@ -0,0 +1,228 @@
+package com.ingemark.product.importer;
+
+import com.ingemark.product.event.ProductsImportedEvent;
+import com.ingemark.product.hnb.service.ExchangeRateProvider;
+import com.ingemark.product.invalidation.InvalidationPublisher;
+import com.ingemark.product.model.Money;
+import com.ingemark.product.repository.ProductRepository;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * ProductImportService loads the supplier CSV feed into the product table.
+ * The file is stream-parsed with constant memory, valid rows are streamed into a temporary staging
+ * table with the PostgreSQL COPY protocol and then merged into product with a single set-based upsert on code.
+ * When a code appears more than once, the last occurrence wins. The whole import runs in one transaction,
+ * which also asks the other instances to reload everything when invalidations are enabled.
+ */
+@Service
+public class ProductImportService {
+	/** Maximum number of characters of a single CSV record. */
+	static final int MAX_RECORD_LENGTH = 8 * 1024;
+
+	/** Number of characters buffered before they are sent to the COPY stream. */
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+	/** Creates the staging table, dropped automatically when the transaction ends. */
+	private static final String CREATE_STAGING_SQL = """
+			CREATE TEMPORARY TABLE product_import_staging (
+				line_no bigint NOT NULL,
+				code varchar(10) NOT NULL,
+				name varchar(255) NOT NULL,
+				price_eur numeric(38, 2) NOT NULL,
+				is_available boolean NOT NULL
+			) ON COMMIT DROP""";
+
+	/** Streams rows into the staging table. */
+	private static final String COPY_SQL =
+			"COPY product_import_staging (line_no, code, name, price_eur, is_available) FROM STDIN WITH (FORMAT csv)";
+
+	/**
+	 * Upserts the last staged row of every code into product, converting the price with the given rate.
+	 * PostgreSQL rounds numeric values half away from zero, the same rule as {@link Money}.
+	 */
+	private static final String MERGE_SQL = """
+			WITH upserted AS (
+				INSERT INTO product (code, name, price_eur, price_usd, is_available)
+				SELECT DISTINCT ON (code) code, name, price_eur, round(price_eur * ?, 2), is_available
+				FROM product_import_staging
+				ORDER BY code, line_no DESC
+				ON CONFLICT (code) DO UPDATE SET
+					name = EXCLUDED.name,
+					price_eur = EXCLUDED.price_eur,
+					price_usd = EXCLUDED.price_usd,
+					is_available = EXCLUDED.is_available,
+					change_version = nextval('product_change_seq')
+				WHERE (product.name, product.price_eur, product.is_available)
+					IS DISTINCT FROM (EXCLUDED.name, EXCLUDED.price_eur, EXCLUDED.is_available)
+				RETURNING (xmax = 0) AS inserted
+			)
+			SELECT count(*) FILTER (WHERE inserted), count(*) FILTER (WHERE NOT inserted) FROM upserted""";
+
+	/** Data source the import connection is taken from. */
+	private final DataSource dataSource;
+
+	/** Provider of the exchange rate used for the USD prices. */
+	private final ExchangeRateProvider exchangeRateProvider;
+
+	/** Publisher used to announce the committed import. */
+	private final ApplicationEventPublisher eventPublisher;
+
+	/** Publisher of the flush sent to the other instances, available when invalidations are enabled. */
+	private final ObjectProvider<InvalidationPublisher> invalidationPublisher;
+
+	/**
+	 * Constructs a ProductImportService.
+	 *
+	 * @param dataSource the data source the import connection is taken from
+	 * @param exchangeRateProvider the provider of the exchange rate
+	 * @param eventPublisher the publisher used to announce the committed import
+	 * @param invalidationPublisher the publisher of the flush sent to the other instances
+	 */
+	public ProductImportService(DataSource dataSource, ExchangeRateProvider exchangeRateProvider,
+								ApplicationEventPublisher eventPublisher,
+								ObjectProvider<InvalidationPublisher> invalidationPublisher) {
+		this.dataSource = dataSource;
+		this.exchangeRateProvider = exchangeRateProvider;
+		this.eventPublisher = eventPublisher;
+		this.invalidationPublisher = invalidationPublisher;
+	}
+
+	/**
+	 * Imports a CSV catalog with the columns code, name, price_eur and is_available.
+	 * A header row and empty lines are skipped, invalid rows are rejected and reported.
+	 *
+	 * @param input the CSV input, read until the end and closed
+	 * @return the import report
+	 * @throws IOException if reading the input fails
+	 * @throws SQLException if loading or merging the rows fails
+	 */
+	public ImportReport importCsv(InputStream input) throws IOException, SQLException {
+		BigDecimal exchangeRate = BigDecimal.valueOf(
+				Money.toScaledRate(exchangeRateProvider.getEurToUsdRate()), Money.RATE_SCALE);
+		ImportReport report = new ImportReport();
+		try (Connection connection = dataSource.getConnection();
+			 CsvRecordReader reader = new CsvRecordReader(Channels.newChannel(input), MAX_RECORD_LENGTH)) {
+			connection.setAutoCommit(false);
+			try {
+				try (Statement statement = connection.createStatement()) {
+					statement.execute(CREATE_STAGING_SQL);
+				}
+				CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+				try {
+					stage(reader, copyIn, report);
+					copyIn.endCopy();
+				} finally {
+					if (copyIn.isActive()) {
+						copyIn.cancelCopy();
+					}
+				}
+				merge(connection, exchangeRate, report);
+				InvalidationPublisher publisher = invalidationPublisher.getIfAvailable();
+				if (publisher != null) {
+					publisher.publishFlush(connection);
+				}
+				connection.commit();
+			} catch (IOException | SQLException | RuntimeException ex) {
+				connection.rollback();
+				throw ex;
+			} finally {
+				connection.setAutoCommit(true);
+			}
+		}
+		eventPublisher.publishEvent(new ProductsImportedEvent(report.getInserted(), report.getUpdated()));
+		return report;
+	}
+
+	/**
+	 * Parses the records and streams the valid ones into the COPY stream.
+	 *
+	 * @param reader the CSV reader
+	 * @param copyIn the COPY stream of the staging table
+	 * @param report the report collecting counts and rejections
+	 * @throws IOException if reading the input fails
+	 * @throws SQLException if writing to the COPY stream fails
+	 */
+	private void stage(CsvRecordReader reader, CopyIn copyIn, ImportReport report) throws IOException, SQLException {
+		StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + MAX_RECORD_LENGTH * 2);
+		boolean first = true;
+		CsvRecordReader.CsvRecord record;
+		while ((record = reader.next()) != null) {
+			if (record.getFields() != null && (ProductCsvRow.isBlank(record.getFields())
+					|| (first && ProductCsvRow.isHeader(record.getFields())))) {
+				first = false;
+				continue;
+			}
+			first = false;
+			report.recordRead();
+			if (record.getError() != null) {
+				report.reject(record.getLineNumber(), record.getError());
+				continue;
+			}
+			try {
+				ProductCsvRow.parse(record.getFields()).appendCopyLine(record.getLineNumber(), buffer);
+				report.recordStaged();
+			} catch (IllegalArgumentException ex) {
+				report.reject(record.getLineNumber(), ex.getMessage());
+				continue;
+			}
+			if (buffer.length() >= COPY_BUFFER_SIZE) {
+				flush(buffer, copyIn);
+			}
+		}
+		flush(buffer, copyIn);
+	}
+
+	/**
+	 * Sends the buffered COPY lines to the server.
+	 *
+	 * @param buffer the buffered lines, cleared afterwards
+	 * @param copyIn the COPY stream
+	 * @throws SQLException if writing to the COPY stream fails
+	 */
+	private static void flush(StringBuilder buffer, CopyIn copyIn) throws SQLException {
+		if (buffer.length() > 0) {
+			byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+			copyIn.writeToCopy(bytes, 0, bytes.length);
+			buffer.setLength(0);
+		}
+	}
+
+	/**
+	 * Merges the staging table into the product table under the change version lock.
+	 * Existing products are only updated, and given a new change version, if a value differs.
+	 *
+	 * @param connection the import connection
+	 * @param exchangeRate the EUR to USD exchange rate
+	 * @param report the report receiving the inserted and updated counts
+	 * @throws SQLException if the merge fails
+	 */
+	private void merge(Connection connection, BigDecimal exchangeRate, ImportReport report) throws SQLException {
+		try (PreparedStatement lock = connection.prepareStatement("select pg_advisory_xact_lock(?)")) {
+			lock.setLong(1, ProductRepository.CHANGE_VERSION_LOCK_KEY);
+			lock.execute();
+		}
+		try (PreparedStatement statement = connection.prepareStatement(MERGE_SQL)) {
+			statement.setBigDecimal(1, exchangeRate);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				resultSet.next();
+				report.merged(resultSet.getLong(1), resultSet.getLong(2));
+			}
+		}
+	}
+}
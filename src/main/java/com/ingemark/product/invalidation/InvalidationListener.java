@@ -0,0 +1,229 @@
+package com.ingemark.product.invalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingemark.product.event.ProductsInvalidatedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * InvalidationListener receives the product changes of the other instances with PostgreSQL LISTEN
+ * and publishes them locally as ProductsInvalidatedEvent, so the local caches refresh the changed products.
+ * It holds its own connection outside of the pool, on a dedicated thread. Whenever notifications may have
+ * been missed, because the connection was lost or a sequence number was skipped, it requests a flush instead.
+ * Enabled with {@code product.invalidation.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "product.invalidation.enabled", havingValue = "true")
+public class InvalidationListener {
+	/** Logger for connection problems and missed notifications. */
+	private static final Logger log = LoggerFactory.getLogger(InvalidationListener.class);
+
+	/** Channel names are used as SQL identifiers and are restricted to this pattern. */
+	private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_][a-z0-9_]*");
+
+	/** Delay before the first reconnect attempt, doubled after every failed attempt. */
+	private static final Duration INITIAL_RECONNECT_DELAY = Duration.ofSeconds(1);
+
+	/** Publisher of the local invalidation events. */
+	private final ApplicationEventPublisher eventPublisher;
+
+	/** Mapper parsing the messages. */
+	private final ObjectMapper objectMapper;
+
+	/** Id of this instance, whose own messages are skipped. */
+	private final String nodeId;
+
+	/** JDBC URL of the database. */
+	private final String url;
+
+	/** Database user. */
+	private final String username;
+
+	/** Database password. */
+	private final String password;
+
+	/** Notification channel shared by all instances. */
+	private final String channel;
+
+	/** Longest wait for notifications before the connection is checked. */
+	private final Duration pollInterval;
+
+	/** Upper bound of the delay between reconnect attempts. */
+	private final Duration maxReconnectDelay;
+
+	/** Last sequence number received from every other instance, only used by the listener thread. */
+	private final Map<String, Long> lastSequences = new HashMap<>();
+
+	/** Thread holding the connection and waiting for notifications. */
+	private final Thread thread;
+
+	/** Whether the listener is shutting down. */
+	private volatile boolean stopped;
+
+	/** Connection currently listening, closed on shutdown to interrupt the wait. */
+	private volatile Connection connection;
+
+	/**
+	 * Constructs an InvalidationListener.
+	 *
+	 * @param eventPublisher the publisher of the local invalidation events
+	 * @param objectMapper the mapper parsing the messages
+	 * @param invalidationPublisher the publisher of this instance, providing its node id
+	 * @param url the JDBC URL of the database
+	 * @param username the database user
+	 * @param password the database password
+	 * @param channel the notification channel
+	 * @param pollInterval the longest wait for notifications before the connection is checked
+	 * @param maxReconnectDelay the upper bound of the delay between reconnect attempts
+	 */
+	public InvalidationListener(ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+								InvalidationPublisher invalidationPublisher,
+								@Value("${spring.datasource.url}") String url,
+								@Value("${spring.datasource.username}") String username,
+								@Value("${spring.datasource.password}") String password,
+								@Value("${product.invalidation.channel:product_changes}") String channel,
+								@Value("${product.invalidation.poll-interval:PT10S}") Duration pollInterval,
+								@Value("${product.invalidation.max-reconnect-delay:PT30S}") Duration maxReconnectDelay) {
+		if (!CHANNEL_PATTERN.matcher(channel).matches()) {
+			throw new IllegalArgumentException("Invalid product invalidation channel: " + channel);
+		}
+		this.eventPublisher = eventPublisher;
+		this.objectMapper = objectMapper;
+		this.nodeId = invalidationPublisher.getNodeId();
+		this.url = url;
+		this.username = username;
+		this.password = password;
+		this.channel = channel;
+		this.pollInterval = pollInterval;
+		this.maxReconnectDelay = maxReconnectDelay;
+		this.thread = new Thread(this::run, "product-invalidation");
+		this.thread.setDaemon(true);
+	}
+
+	/**
+	 * Starts listening.
+	 */
+	@PostConstruct
+	public void start() {
+		thread.start();
+	}
+
+	/**
+	 * Keeps a listening connection open until shutdown, reconnecting with exponential backoff.
+	 * Every new connection starts with a flush, since changes made while nobody was listening are not delivered.
+	 */
+	private void run() {
+		Duration reconnectDelay = INITIAL_RECONNECT_DELAY;
+		while (!stopped) {
+			try (Connection listening = DriverManager.getConnection(url, username, password)) {
+				connection = listening;
+				try (Statement statement = listening.createStatement()) {
+					statement.execute("LISTEN " + channel);
+				}
+				reconnectDelay = INITIAL_RECONNECT_DELAY;
+				lastSequences.clear();
+				log.info("Listening for product invalidations on {}, reloading all products", channel);
+				eventPublisher.publishEvent(ProductsInvalidatedEvent.flush());
+				listen(listening);
+			} catch (SQLException | RuntimeException ex) {
+				if (stopped) {
+					return;
+				}
+				log.warn("Product invalidation connection failed, reconnecting in {}: {}", reconnectDelay, ex.getMessage());
+				try {
+					Thread.sleep(reconnectDelay.toMillis());
+				} catch (InterruptedException interrupted) {
+					return;
+				}
+				reconnectDelay = reconnectDelay.multipliedBy(2).compareTo(maxReconnectDelay) > 0
+						? maxReconnectDelay : reconnectDelay.multipliedBy(2);
+			}
+		}
+	}
+
+	/**
+	 * Waits for notifications on the connection and handles them until it fails or the listener stops.
+	 * After a quiet poll the connection is checked, since a dead connection does not always raise an error.
+	 *
+	 * @param listening the listening connection
+	 * @throws SQLException if the connection fails
+	 */
+	private void listen(Connection listening) throws SQLException {
+		PGConnection pgConnection = listening.unwrap(PGConnection.class);
+		while (!stopped) {
+			PGNotification[] notifications = pgConnection.getNotifications((int) pollInterval.toMillis());
+			if (notifications == null || notifications.length == 0) {
+				try (Statement statement = listening.createStatement()) {
+					statement.execute("SELECT 1");
+				}
+				continue;
+			}
+			for (PGNotification notification : notifications) {
+				handle(notification.getParameter());
+			}
+		}
+	}
+
+	/**
+	 * Handles a single notification payload.
+	 *
+	 * @param payload the JSON payload
+	 */
+	void handle(String payload) {
+		InvalidationMessage message;
+		try {
+			message = objectMapper.readValue(payload, InvalidationMessage.class);
+		} catch (JsonProcessingException ex) {
+			log.warn("Ignoring malformed product invalidation: {}", ex.getMessage());
+			return;
+		}
+		if (nodeId.equals(message.getNode())) {
+			return;
+		}
+		Long lastSequence = lastSequences.put(message.getNode(), message.getSeq());
+		if (lastSequence != null && message.getSeq() != lastSequence + 1) {
+			log.info("Missed product invalidations {} to {} from {}, reloading all products",
+					lastSequence + 1, message.getSeq() - 1, message.getNode());
+			eventPublisher.publishEvent(ProductsInvalidatedEvent.flush());
+		} else if (message.isFlush()) {
+			eventPublisher.publishEvent(ProductsInvalidatedEvent.flush());
+		} else if (!message.getCodes().isEmpty()) {
+			eventPublisher.publishEvent(new ProductsInvalidatedEvent(message.getCodes(), false));
+		}
+	}
+
+	/**
+	 * Stops listening and closes the connection.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		stopped = true;
+		Connection listening = connection;
+		if (listening != null) {
+			try {
+				listening.close();
+			} catch (SQLException ex) {
+				log.debug("Failed to close product invalidation connection: {}", ex.getMessage());
+			}
+		}
+		thread.interrupt();
+	}
+}
@@ -0,0 +1,93 @@
+package com.ingemark.product.invalidation;
+
+import java.util.List;
+
+/**
+ * InvalidationMessage is the JSON payload of a product change notification.
+ * Every instance numbers its messages consecutively, so receivers can tell when one was lost.
+ */
+public class InvalidationMessage {
+	/** Id of the instance that sent the message. */
+	private String node;
+
+	/** Position of the message in the sequence of the sending instance. */
+	private long seq;
+
+	/** Codes of the changed products. */
+	private List<String> codes = List.of();
+
+	/** Whether receivers have to reload all products. */
+	private boolean flush;
+
+	/**
+	 * Gets the id of the sending instance.
+	 *
+	 * @return the node id
+	 */
+	public String getNode() {
+		return node;
+	}
+
+	/**
+	 * Sets the id of the sending instance.
+	 *
+	 * @param node the node id to set
+	 */
+	public void setNode(String node) {
+		this.node = node;
+	}
+
+	/**
+	 * Gets the position of the message in the sequence of the sending instance.
+	 *
+	 * @return the sequence number
+	 */
+	public long getSeq() {
+		return seq;
+	}
+
+	/**
+	 * Sets the position of the message in the sequence of the sending instance.
+	 *
+	 * @param seq the sequence number to set
+	 */
+	public void setSeq(long seq) {
+		this.seq = seq;
+	}
+
+	/**
+	 * Gets the codes of the changed products.
+	 *
+	 * @return the product codes
+	 */
+	public List<String> getCodes() {
+		return codes;
+	}
+
+	/**
+	 * Sets the codes of the changed products.
+	 *
+	 * @param codes the product codes to set
+	 */
+	public void setCodes(List<String> codes) {
+		this.codes = codes;
+	}
+
+	/**
+	 * Checks whether receivers have to reload all products.
+	 *
+	 * @return true for a flush
+	 */
+	public boolean isFlush() {
+		return flush;
+	}
+
+	/**
+	 * Sets whether receivers have to reload all products.
+	 *
+	 * @param flush true for a flush
+	 */
+	public void setFlush(boolean flush) {
+		this.flush = flush;
+	}
+}
@@ -0,0 +1,213 @@
+package com.ingemark.product.invalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingemark.product.event.ProductAvailabilityChangedEvent;
+import com.ingemark.product.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * InvalidationPublisher sends the product changes made by ProductService and the importer to the other
+ * instances with PostgreSQL NOTIFY. The notification is sent on the connection of the writing transaction
+ * right before it commits, so PostgreSQL delivers it together with the change and drops it on a rollback;
+ * a write whose notification cannot be sent fails. Sequence numbers are taken while the change version lock
+ * is held, so they reach the listeners in commit order. The number of a rolled back write is never delivered,
+ * which the listeners answer with a flush.
+ * Enabled with {@code product.invalidation.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "product.invalidation.enabled", havingValue = "true")
+public class InvalidationPublisher {
+	/** Largest payload sent in one notification, below the 8000 byte limit of PostgreSQL. */
+	static final int MAX_PAYLOAD_BYTES = 7900;
+
+	/** Random id of this instance, different on every start. */
+	private final String nodeId = UUID.randomUUID().toString();
+
+	/** Data source whose transactional connection the notifications are sent on. */
+	private final DataSource dataSource;
+
+	/** Mapper serializing the messages. */
+	private final ObjectMapper objectMapper;
+
+	/** Notification channel shared by all instances. */
+	private final String channel;
+
+	/** Sequence number of the last message, guarded by this. */
+	private long sequence;
+
+	/**
+	 * Constructs an InvalidationPublisher.
+	 *
+	 * @param dataSource the data source of the writing transactions
+	 * @param objectMapper the mapper serializing the messages
+	 * @param channel the notification channel
+	 */
+	public InvalidationPublisher(DataSource dataSource, ObjectMapper objectMapper,
+								 @Value("${product.invalidation.channel:product_changes}") String channel) {
+		this.dataSource = dataSource;
+		this.objectMapper = objectMapper;
+		this.channel = channel;
+	}
+
+	/**
+	 * Gets the id of this instance, used by the listener to skip its own messages.
+	 *
+	 * @return the node id
+	 */
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	/**
+	 * Announces a created or updated product in its transaction, right before it commits.
+	 *
+	 * @param event the product change
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		publish(List.of(event.getProduct().getCode()));
+	}
+
+	/**
+	 * Announces a bulk availability change in its transaction, right before it commits.
+	 *
+	 * @param event the availability change
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+	public void onProductAvailabilityChanged(ProductAvailabilityChangedEvent event) {
+		publish(event.getCodes());
+	}
+
+	/**
+	 * Sends the codes of changed products on the connection of the current transaction,
+	 * split over as many notifications as their size requires.
+	 *
+	 * @param codes the codes of the changed products
+	 * @throws IllegalStateException if a notification cannot be sent
+	 */
+	public void publish(List<String> codes) {
+		Connection connection = DataSourceUtils.getConnection(dataSource);
+		try {
+			publish(connection, codes);
+		} catch (SQLException ex) {
+			throw new IllegalStateException("Failed to send product invalidation", ex);
+		} finally {
+			DataSourceUtils.releaseConnection(connection, dataSource);
+		}
+	}
+
+	/**
+	 * Sends the codes of changed products on the given connection, split over as many notifications
+	 * as their size requires.
+	 *
+	 * @param connection the connection of the writing transaction
+	 * @param codes the codes of the changed products
+	 * @throws SQLException if a notification cannot be sent
+	 */
+	public synchronized void publish(Connection connection, List<String> codes) throws SQLException {
+		for (List<String> chunk : chunk(codes)) {
+			InvalidationMessage message = new InvalidationMessage();
+			message.setCodes(chunk);
+			send(connection, message);
+		}
+	}
+
+	/**
+	 * Asks the other instances to reload all products once the transaction of the connection commits.
+	 * The importer calls it while holding the change version lock.
+	 *
+	 * @param connection the connection of the writing transaction
+	 * @throws SQLException if the notification cannot be sent
+	 */
+	public synchronized void publishFlush(Connection connection) throws SQLException {
+		InvalidationMessage message = new InvalidationMessage();
+		message.setFlush(true);
+		send(connection, message);
+	}
+
+	/**
+	 * Splits the codes into chunks whose messages fit into a notification.
+	 *
+	 * @param codes the codes to split
+	 * @return the chunks
+	 */
+	List<List<String>> chunk(List<String> codes) {
+		List<List<String>> chunks = new ArrayList<>();
+		// Sized with the longest possible sequence number so the real message is never larger.
+		InvalidationMessage empty = new InvalidationMessage();
+		empty.setNode(nodeId);
+		empty.setSeq(Long.MAX_VALUE);
+		int emptySize = byteLength(empty);
+		int size = emptySize;
+		int from = 0;
+		for (int i = 0; i < codes.size(); i++) {
+			int codeSize = byteLength(codes.get(i)) + 1;
+			if (i > from && size + codeSize > MAX_PAYLOAD_BYTES) {
+				chunks.add(codes.subList(from, i));
+				from = i;
+				size = emptySize;
+			}
+			size += codeSize;
+		}
+		if (from < codes.size()) {
+			chunks.add(codes.subList(from, codes.size()));
+		}
+		return chunks;
+	}
+
+	/**
+	 * Computes the size in bytes of a value serialized to JSON.
+	 *
+	 * @param value the value
+	 * @return the serialized size
+	 */
+	private int byteLength(Object value) {
+		return serialize(value).getBytes(StandardCharsets.UTF_8).length;
+	}
+
+	/**
+	 * Numbers a message and queues it on the connection, to be delivered when its transaction commits.
+	 *
+	 * @param connection the connection of the writing transaction
+	 * @param message the message to send
+	 * @throws SQLException if the message cannot be sent
+	 */
+	private void send(Connection connection, InvalidationMessage message) throws SQLException {
+		message.setNode(nodeId);
+		message.setSeq(++sequence);
+		try (PreparedStatement statement = connection.prepareStatement("select pg_notify(?, ?)")) {
+			statement.setString(1, channel);
+			statement.setString(2, serialize(message));
+			statement.execute();
+		}
+	}
+
+	/**
+	 * Serializes a message or one of its values to JSON.
+	 *
+	 * @param value the value
+	 * @return the JSON payload
+	 */
+	private String serialize(Object value) {
+		try {
+			return objectMapper.writeValueAsString(value);
+		} catch (JsonProcessingException ex) {
+			throw new IllegalStateException("Failed to serialize product invalidation", ex);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package com.ingemark.product.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * ExchangeRateCacheEvent is a periodic JFR event with the lookup counters of the local exchange rate cache
+ * and the age of the cached rate. Hits are only counted here, misses also emit an ExchangeRateLookupEvent.
+ */
+@Name("com.ingemark.ExchangeRateCache")
+@Label("Exchange Rate Cache")
+@Category({"Ingemark", "HNB"})
+@Description("Lookup counters of the local exchange rate cache since the start of the application")
+@StackTrace(false)
+@Period("60 s")
+public class ExchangeRateCacheEvent extends Event {
+	/** Number of lookups answered from the local cache. */
+	@Label("Hits")
+	long hits;
+
+	/** Number of lookups that read the shared rate. */
+	@Label("Misses")
+	long misses;
+
+	/** Time since the cached rate was fetched from the HNB API, 0 if there is none. */
+	@Label("Rate Age")
+	@Timespan(Timespan.NANOSECONDS)
+	long rateAge;
+
+	/**
+	 * Sets the number of lookups answered from the local cache.
+	 *
+	 * @param hits the hit count
+	 */
+	public void setHits(long hits) {
+		this.hits = hits;
+	}
+
+	/**
+	 * Sets the number of lookups that read the shared rate.
+	 *
+	 * @param misses the miss count
+	 */
+	public void setMisses(long misses) {
+		this.misses = misses;
+	}
+
+	/**
+	 * Sets the time since the cached rate was fetched from the HNB API.
+	 *
+	 * @param rateAge the rate age in nanoseconds
+	 */
+	public void setRateAge(long rateAge) {
+		this.rateAge = rateAge;
+	}
+}
@@ -0,0 +1,60 @@
+package com.ingemark.product.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * ExchangeRateLookupEvent is a JFR event covering one lookup of the shared exchange rate that missed
+ * the local cache, with the age of the rate that was read. Cache hits are only counted, see ExchangeRateCacheEvent.
+ */
+@Name("com.ingemark.ExchangeRateLookup")
+@Label("Exchange Rate Lookup")
+@Category({"Ingemark", "HNB"})
+@Description("A lookup of the shared exchange rate that missed the local cache")
+@StackTrace(false)
+@Threshold("0 ms")
+public class ExchangeRateLookupEvent extends Event {
+	/** Time since the rate was fetched from the HNB API. */
+	@Label("Rate Age")
+	@Timespan(Timespan.NANOSECONDS)
+	long rateAge;
+
+	/** Class of the exception the lookup failed with, null if it succeeded. */
+	@Label("Failure")
+	String failure;
+
+	/**
+	 * Sets the time since the rate was fetched from the HNB API.
+	 *
+	 * @param rateAge the rate age in nanoseconds
+	 */
+	public void setRateAge(long rateAge) {
+		this.rateAge = rateAge;
+	}
+
+	/**
+	 * Records the exception the lookup failed with.
+	 *
+	 * @param ex the exception
+	 */
+	public void fail(Throwable ex) {
+		this.failure = ex.getClass().getName();
+	}
+
+	/**
+	 * Ends the event and commits it if it passes the configured threshold.
+	 * Called from a finally block, so failed lookups are recorded too.
+	 */
+	public void finish() {
+		end();
+		if (shouldCommit()) {
+			commit();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.ingemark.product.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * HnbFetchEvent is a JFR event covering one call to the HNB exchange rate API.
+ */
+@Name("com.ingemark.HnbFetch")
+@Label("HNB Fetch")
+@Category({"Ingemark", "HNB"})
+@Description("A call to the HNB exchange rate API")
+@StackTrace(false)
+@Threshold("0 ms")
+public class HnbFetchEvent extends Event {
+	/** Whether a rate was received. */
+	@Label("Success")
+	boolean success;
+
+	/** Received EUR to USD rate, 0 on failure. */
+	@Label("Rate")
+	double rate;
+
+	/** Age of the previously fetched rate, the staleness this fetch ended; 0 for the first fetch. */
+	@Label("Previous Rate Age")
+	@Timespan(Timespan.NANOSECONDS)
+	long previousRateAge;
+
+	/**
+	 * Ends the event and commits it if it passes the configured threshold.
+	 *
+	 * @param success whether a rate was received
+	 * @param rate the received rate, 0 on failure
+	 * @param previousRateAge the age of the previously fetched rate in nanoseconds
+	 */
+	public void finish(boolean success, double rate, long previousRateAge) {
+		end();
+		if (shouldCommit()) {
+			this.success = success;
+			this.rate = rate;
+			this.previousRateAge = previousRateAge;
+			commit();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.ingemark.product.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * ProductOperationEvent is a JFR event covering one ProductService operation,
+ * such as a lookup by code or the conversion of the full product list.
+ */
+@Name("com.ingemark.ProductOperation")
+@Label("Product Operation")
+@Category({"Ingemark", "Product"})
+@Description("A ProductService operation with the products it touched")
+@StackTrace(false)
+@Threshold("10 ms")
+public class ProductOperationEvent extends Event {
+	/** Name of the ProductService method. */
+	@Label("Operation")
+	String operation;
+
+	/** Product code of single product operations. */
+	@Label("Code")
+	String code;
+
+	/** Number of products read or written. */
+	@Label("Product Count")
+	int productCount;
+
+	/** Time spent in the database. */
+	@Label("Database Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long databaseTime;
+
+	/** Class of the exception the operation failed with, null if it succeeded. */
+	@Label("Failure")
+	String failure;
+
+	/**
+	 * Creates and begins an event.
+	 *
+	 * @param operation the name of the ProductService method
+	 * @param code the product code, or null for operations on many products
+	 * @return the started event
+	 */
+	public static ProductOperationEvent start(String operation, String code) {
+		ProductOperationEvent event = new ProductOperationEvent();
+		event.operation = operation;
+		event.code = code;
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Sets the number of products read or written.
+	 *
+	 * @param productCount the product count
+	 */
+	public void setProductCount(int productCount) {
+		this.productCount = productCount;
+	}
+
+	/**
+	 * Sets the time spent in the database.
+	 *
+	 * @param databaseNanos the database time in nanoseconds
+	 */
+	public void setDatabaseTime(long databaseNanos) {
+		this.databaseTime = databaseNanos;
+	}
+
+	/**
+	 * Records the exception the operation failed with.
+	 *
+	 * @param ex the exception
+	 */
+	public void fail(Throwable ex) {
+		this.failure = ex.getClass().getName();
+	}
+
+	/**
+	 * Ends the event and commits it if it passes the configured threshold.
+	 * Called from a finally block, so failed operations are recorded too.
+	 */
+	public void finish() {
+		end();
+		if (shouldCommit()) {
+			commit();
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.ingemark.product.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * ProductRequestEvent is a JFR event covering one request to a product endpoint, from before the
+ * request is admitted and its arguments are validated until the response status is final, including
+ * responses of rejected requests and of exceptions handled by the controller advice.
+ * The event is bound to the request thread by the ProductRequestEventInterceptor; the controller adds
+ * what only it knows through the static record methods, which do nothing outside a request.
+ */
+@Name("com.ingemark.ProductRequest")
+@Label("Product Request")
+@Category({"Ingemark", "Product"})
+@Description("A request to a product endpoint")
+@StackTrace(false)
+@Threshold("20 ms")
+public class ProductRequestEvent extends Event {
+	/** Outcome of a full catalog request served from the catalog snapshot. */
+	public static final String SNAPSHOT_HIT = "hit";
+
+	/** Outcome of a full catalog request answered with 304 from the catalog snapshot. */
+	public static final String SNAPSHOT_NOT_MODIFIED = "not-modified";
+
+	/** Outcome of a full catalog request without a snapshot, answered from the database. */
+	public static final String SNAPSHOT_MISS = "miss";
+
+	/** Event of the request handled by the current thread. */
+	private static final ThreadLocal<ProductRequestEvent> CURRENT = new ThreadLocal<>();
+
+	/** Name of the controller method. */
+	@Label("Endpoint")
+	String endpoint;
+
+	/** Product code of single product requests. */
+	@Label("Code")
+	String code;
+
+	/** HTTP status of the response. */
+	@Label("Status")
+	int status;
+
+	/** Number of products in the response, not counted for responses served from the catalog snapshot. */
+	@Label("Product Count")
+	int productCount;
+
+	/** Catalog snapshot outcome of full catalog requests. */
+	@Label("Snapshot")
+	String snapshot;
+
+	/** Class of the exception the request failed with, null if it succeeded. */
+	@Label("Failure")
+	String failure;
+
+	/**
+	 * Creates and begins an event and binds it to the current thread.
+	 *
+	 * @param endpoint the name of the controller method
+	 * @param code the product code, or null
+	 * @return the started event
+	 */
+	static ProductRequestEvent start(String endpoint, String code) {
+		ProductRequestEvent event = new ProductRequestEvent();
+		event.endpoint = endpoint;
+		event.code = code;
+		CURRENT.set(event);
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Gets the event bound to the current thread.
+	 *
+	 * @return the event, or null outside a product request
+	 */
+	static ProductRequestEvent current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Unbinds the event from the current thread without committing it.
+	 */
+	static void discard() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * Sets the product code of the current request.
+	 *
+	 * @param code the product code
+	 */
+	public static void recordCode(String code) {
+		ProductRequestEvent event = CURRENT.get();
+		if (event != null) {
+			event.code = code;
+		}
+	}
+
+	/**
+	 * Sets the number of products in the response of the current request.
+	 *
+	 * @param productCount the product count
+	 */
+	public static void recordProductCount(int productCount) {
+		ProductRequestEvent event = CURRENT.get();
+		if (event != null) {
+			event.productCount = productCount;
+		}
+	}
+
+	/**
+	 * Sets the catalog snapshot outcome of the current request.
+	 *
+	 * @param snapshot one of the SNAPSHOT constants
+	 */
+	public static void recordSnapshot(String snapshot) {
+		ProductRequestEvent event = CURRENT.get();
+		if (event != null) {
+			event.snapshot = snapshot;
+		}
+	}
+
+	/**
+	 * Records the exception the current request failed with, for failures the controller turns into a response.
+	 *
+	 * @param ex the exception
+	 */
+	public static void recordFailure(Throwable ex) {
+		ProductRequestEvent event = CURRENT.get();
+		if (event != null) {
+			event.failure = ex.getClass().getName();
+		}
+	}
+
+	/**
+	 * Unbinds the event from the current thread, ends it and commits it if it passes the configured threshold.
+	 *
+	 * @param status the HTTP status of the response
+	 * @param ex the exception the request failed with, or null
+	 */
+	void complete(int status, Throwable ex) {
+		CURRENT.remove();
+		end();
+		if (shouldCommit()) {
+			this.status = status;
+			if (ex != null) {
+				failure = ex.getClass().getName();
+			}
+			commit();
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.ingemark.product.jfr;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * ProductRequestEventConfig records the product endpoints with JFR events.
+ * The interceptor runs first, so requests shed by the concurrency limiter are recorded too.
+ * The event stream is left out, its requests stay open for as long as the client listens.
+ */
+@Configuration
+public class ProductRequestEventConfig implements WebMvcConfigurer {
+	/** Interceptor recording the events. */
+	private final ProductRequestEventInterceptor productRequestEventInterceptor;
+
+	/**
+	 * Constructs a ProductRequestEventConfig.
+	 *
+	 * @param productRequestEventInterceptor the interceptor recording the events
+	 */
+	public ProductRequestEventConfig(ProductRequestEventInterceptor productRequestEventInterceptor) {
+		this.productRequestEventInterceptor = productRequestEventInterceptor;
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(productRequestEventInterceptor)
+				.addPathPatterns("/products", "/products/**")
+				.excludePathPatterns("/products/stream")
+				.order(Ordered.HIGHEST_PRECEDENCE);
+	}
+}
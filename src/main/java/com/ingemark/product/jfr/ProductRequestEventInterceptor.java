@@ -0,0 +1,61 @@
+package com.ingemark.product.jfr;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * ProductRequestEventInterceptor records a ProductRequestEvent for every request to a product endpoint.
+ * The event starts before any other interceptor and before the handler arguments are validated, and ends
+ * once the response status is final, so rejected requests and exceptions resolved by the controller
+ * advice are recorded with the status the client received.
+ */
+@Component
+public class ProductRequestEventInterceptor implements AsyncHandlerInterceptor {
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (handler instanceof HandlerMethod handlerMethod) {
+			ProductRequestEvent.start(handlerMethod.getMethod().getName(), pathCode(request));
+		}
+		return true;
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+											   Object handler) {
+		ProductRequestEvent.discard();
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+								Exception ex) {
+		ProductRequestEvent event = ProductRequestEvent.current();
+		if (event == null) {
+			return;
+		}
+		if (ex != null) {
+			event.complete(HttpStatus.INTERNAL_SERVER_ERROR.value(), ex);
+		} else {
+			event.complete(response.getStatus(), (Throwable) request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE));
+		}
+	}
+
+	/**
+	 * Gets the product code from the request path.
+	 *
+	 * @param request the request
+	 * @return the code path variable, or null if the endpoint has none
+	 */
+	private static String pathCode(HttpServletRequest request) {
+		Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+		return variables instanceof Map<?, ?> map ? (String) map.get("code") : null;
+	}
+}
@@ -0,0 +1,155 @@
+package com.ingemark.product.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AdaptiveConcurrencyLimiter caps the number of requests of one endpoint processed at the same time.
+ * The limit follows the measured latency with a gradient: while the latency of a request stays close to
+ * the long term average the limit grows by about its square root, and when requests start to queue and
+ * take longer the limit shrinks proportionally, by at most half per step. Failed requests shrink it
+ * multiplicatively. Changes are smoothed and the limit stays between the configured minimum and maximum.
+ * The limit is not changed while less than half of it is used, since latency then says nothing about capacity.
+ */
+public class AdaptiveConcurrencyLimiter {
+	/** Number of samples the long term latency average spans. */
+	static final int LONG_WINDOW = 600;
+
+	/** Factor applied to the limit after a failed request. */
+	static final double BACKOFF_RATIO = 0.9;
+
+	/** Weight of a new sample in the long term latency average. */
+	private static final double LONG_WINDOW_WEIGHT = 2.0 / (LONG_WINDOW + 1);
+
+	/** Lower bound of the limit. */
+	private final int minLimit;
+
+	/** Upper bound of the limit. */
+	private final int maxLimit;
+
+	/** Latency increase relative to the long term average that is tolerated before the limit shrinks. */
+	private final double tolerance;
+
+	/** Weight of a newly computed limit against the current one. */
+	private final double smoothing;
+
+	/** Number of requests currently processed. */
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	/** Number of requests rejected so far. */
+	private final AtomicLong rejected = new AtomicLong();
+
+	/** Current limit, fractional so small steps add up. */
+	private volatile double limit;
+
+	/** Long term average latency in nanoseconds, 0 until the first sample, guarded by this. */
+	private double longRttNanos;
+
+	/**
+	 * Constructs an AdaptiveConcurrencyLimiter.
+	 *
+	 * @param initialLimit the limit to start with
+	 * @param minLimit the lower bound of the limit
+	 * @param maxLimit the upper bound of the limit
+	 * @param tolerance the tolerated latency increase, 1.5 lets requests take 50% longer than on average
+	 * @param smoothing the weight of a newly computed limit, between 0 exclusive and 1 inclusive
+	 * @throws IllegalArgumentException if the settings are inconsistent
+	 */
+	public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+		if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+			throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+		}
+		if (tolerance < 1 || smoothing <= 0 || smoothing > 1) {
+			throw new IllegalArgumentException("Tolerance must be at least 1 and smoothing in (0, 1]");
+		}
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.tolerance = tolerance;
+		this.smoothing = smoothing;
+		this.limit = initialLimit;
+	}
+
+	/**
+	 * Admits a request if fewer requests than the limit are in flight.
+	 * Every admitted request has to be released.
+	 *
+	 * @return true if the request is admitted, false if it has to be rejected
+	 */
+	public boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= (int) limit) {
+				rejected.incrementAndGet();
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Releases an admitted request and adjusts the limit with its latency.
+	 *
+	 * @param rttNanos the processing time of the request in nanoseconds
+	 * @param failed whether the request failed, which shrinks the limit regardless of its latency
+	 */
+	public void release(long rttNanos, boolean failed) {
+		int inFlightBefore = inFlight.getAndDecrement();
+		update(Math.max(rttNanos, 1), inFlightBefore, failed);
+	}
+
+	/**
+	 * Computes the new limit from a sample.
+	 *
+	 * @param rttNanos the latency of the sample
+	 * @param inFlightBefore the number of requests in flight including the sampled one
+	 * @param failed whether the sampled request failed
+	 */
+	private synchronized void update(long rttNanos, int inFlightBefore, boolean failed) {
+		double current = limit;
+		if (failed) {
+			limit = Math.max(minLimit, current * BACKOFF_RATIO);
+			return;
+		}
+		longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + LONG_WINDOW_WEIGHT * (rttNanos - longRttNanos);
+		if (longRttNanos / rttNanos > 2) {
+			// Latency dropped far below the average, e.g. after an overload ended; let the average catch up faster.
+			longRttNanos *= 0.95;
+		}
+		if (inFlightBefore < current / 2) {
+			return;
+		}
+		double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+		double newLimit = current * gradient + Math.sqrt(current);
+		newLimit = current * (1 - smoothing) + newLimit * smoothing;
+		limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+	}
+
+	/**
+	 * Gets the current limit.
+	 *
+	 * @return the number of requests admitted at the same time
+	 */
+	public int getLimit() {
+		return (int) limit;
+	}
+
+	/**
+	 * Gets the number of requests currently processed.
+	 *
+	 * @return the in flight count
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * Gets the number of requests rejected so far.
+	 *
+	 * @return the rejected count
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+}
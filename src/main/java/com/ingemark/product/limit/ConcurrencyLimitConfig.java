@@ -0,0 +1,31 @@
+package com.ingemark.product.limit;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * ConcurrencyLimitConfig applies the concurrency limits to the product endpoints.
+ * The event stream is left out, its requests stay open for as long as the client listens.
+ */
+@Configuration
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+	/** Interceptor enforcing the limits. */
+	private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+
+	/**
+	 * Constructs a ConcurrencyLimitConfig.
+	 *
+	 * @param concurrencyLimitInterceptor the interceptor enforcing the limits
+	 */
+	public ConcurrencyLimitConfig(ConcurrencyLimitInterceptor concurrencyLimitInterceptor) {
+		this.concurrencyLimitInterceptor = concurrencyLimitInterceptor;
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(concurrencyLimitInterceptor)
+				.addPathPatterns("/products", "/products/**")
+				.excludePathPatterns("/products/stream");
+	}
+}
@@ -0,0 +1,167 @@
+package com.ingemark.product.limit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ConcurrencyLimitInterceptor admits requests through the adaptive limiter of their endpoint and rejects
+ * the excess with 503 and Retry-After before the controller runs, so an overloaded endpoint sheds its own
+ * load instead of taking threads and connections from the others. Endpoints are named after their controller
+ * and handler method in kebab case, so equally named methods of different controllers get separate limiters.
+ * Each limiter exports its limit, in flight count and rejections as metrics tagged with the endpoint name.
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+	/** Request attribute holding the limiter that admitted the request. */
+	private static final String LIMITER_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".limiter";
+
+	/** Request attribute holding the time the request was admitted. */
+	private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+	/** Settings of the limiters. */
+	private final ConcurrencyLimitProperties properties;
+
+	/** Registry the limiter metrics are exported to. */
+	private final MeterRegistry meterRegistry;
+
+	/** Limiter per endpoint name, created on the first request. */
+	private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+	/** Handler method per endpoint name, to detect two methods deriving the same name. */
+	private final Map<String, Method> handlerMethods = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructs a ConcurrencyLimitInterceptor.
+	 *
+	 * @param properties the settings of the limiters
+	 * @param meterRegistry the registry the metrics are exported to
+	 */
+	public ConcurrencyLimitInterceptor(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+			throws IOException {
+		if (!properties.isEnabled() || !(handler instanceof HandlerMethod handlerMethod)) {
+			return true;
+		}
+		String endpoint = endpointName(handlerMethod);
+		Method method = handlerMethod.getMethod();
+		Method registered = handlerMethods.putIfAbsent(endpoint, method);
+		if (registered != null && !registered.equals(method)) {
+			throw new IllegalStateException("Handler methods " + registered + " and " + method
+					+ " share the concurrency limit endpoint name " + endpoint);
+		}
+		AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(endpoint, this::createLimiter);
+		if (!limiter.tryAcquire()) {
+			long retryAfterSeconds = Math.max(1, (properties.getRetryAfter().toMillis() + 999) / 1000);
+			response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+			response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+			response.getWriter().write("Too many concurrent requests for " + endpoint + ", retry later.");
+			return false;
+		}
+		request.setAttribute(LIMITER_ATTRIBUTE, limiter);
+		request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+								Exception ex) {
+		Object limiter = request.getAttribute(LIMITER_ATTRIBUTE);
+		if (limiter instanceof AdaptiveConcurrencyLimiter admitted) {
+			request.removeAttribute(LIMITER_ATTRIBUTE);
+			long rttNanos = System.nanoTime() - (Long) request.getAttribute(START_ATTRIBUTE);
+			admitted.release(rttNanos, ex != null || response.getStatus() >= 500);
+		}
+	}
+
+	/**
+	 * Gets the limiter of an endpoint.
+	 *
+	 * @param endpoint the endpoint name
+	 * @return the limiter, or null if the endpoint has not been called yet
+	 */
+	AdaptiveConcurrencyLimiter getLimiter(String endpoint) {
+		return limiters.get(endpoint);
+	}
+
+	/**
+	 * Creates the limiter of an endpoint and registers its metrics.
+	 *
+	 * @param endpoint the endpoint name
+	 * @return the new limiter
+	 */
+	private AdaptiveConcurrencyLimiter createLimiter(String endpoint) {
+		AdaptiveConcurrencyLimiter limiter = properties.createLimiter(endpoint);
+		Gauge.builder("product.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+				.description("Current adaptive concurrency limit")
+				.tag("endpoint", endpoint)
+				.register(meterRegistry);
+		Gauge.builder("product.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+				.description("Requests currently processed")
+				.tag("endpoint", endpoint)
+				.register(meterRegistry);
+		FunctionCounter.builder("product.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+				.description("Requests rejected with 503 because the limit was reached")
+				.tag("endpoint", endpoint)
+				.register(meterRegistry);
+		return limiter;
+	}
+
+	/**
+	 * Derives the endpoint name from the controller and the handler method, without the Controller suffix,
+	 * e.g. product-get-product-by-code for ProductController.getProductByCode.
+	 *
+	 * @param handlerMethod the handler method
+	 * @return the endpoint name
+	 */
+	static String endpointName(HandlerMethod handlerMethod) {
+		String controllerName = handlerMethod.getBeanType().getSimpleName();
+		if (controllerName.endsWith("Controller") && controllerName.length() > "Controller".length()) {
+			controllerName = controllerName.substring(0, controllerName.length() - "Controller".length());
+		}
+		StringBuilder name = new StringBuilder(64);
+		appendKebabCase(name, controllerName);
+		name.append('-');
+		appendKebabCase(name, handlerMethod.getMethod().getName());
+		return name.toString();
+	}
+
+	/**
+	 * Appends a camel case identifier in kebab case, e.g. get-all-products for getAllProducts.
+	 *
+	 * @param name the name to append to
+	 * @param identifier the identifier
+	 */
+	private static void appendKebabCase(StringBuilder name, String identifier) {
+		for (int i = 0; i < identifier.length(); i++) {
+			char c = identifier.charAt(i);
+			if (Character.isUpperCase(c)) {
+				if (i > 0) {
+					name.append('-');
+				}
+				name.append(Character.toLowerCase(c));
+			} else {
+				name.append(c);
+			}
+		}
+	}
+}
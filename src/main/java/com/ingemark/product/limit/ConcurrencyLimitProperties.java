@@ -0,0 +1,207 @@
+package com.ingemark.product.limit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ConcurrencyLimitProperties configures the adaptive concurrency limits of the product endpoints.
+ * Endpoints are named after their controller, without the Controller suffix, and handler method in kebab case,
+ * e.g. product-get-all-products, and every setting not given for an endpoint falls back to the defaults:
+ * <pre>
+ * product.concurrency-limit.defaults.max-limit=200
+ * product.concurrency-limit.endpoints.product-get-all-products.max-limit=10
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "product.concurrency-limit")
+public class ConcurrencyLimitProperties {
+	/** Whether requests are limited at all. */
+	private boolean enabled = true;
+
+	/** Retry-After sent with rejected requests, rounded up to whole seconds. */
+	private Duration retryAfter = Duration.ofSeconds(1);
+
+	/** Settings of endpoints without their own. */
+	private Limit defaults = new Limit(20, 2, 200, 1.5, 0.2);
+
+	/** Settings per endpoint name, overriding the defaults. */
+	private Map<String, Limit> endpoints = new HashMap<>();
+
+	/**
+	 * Checks whether requests are limited.
+	 *
+	 * @return true if limiting is enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets whether requests are limited.
+	 *
+	 * @param enabled true to enable limiting
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Gets the Retry-After of rejected requests.
+	 *
+	 * @return the retry delay
+	 */
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+
+	/**
+	 * Sets the Retry-After of rejected requests.
+	 *
+	 * @param retryAfter the retry delay to set
+	 */
+	public void setRetryAfter(Duration retryAfter) {
+		this.retryAfter = retryAfter;
+	}
+
+	/**
+	 * Gets the default settings.
+	 *
+	 * @return the default settings
+	 */
+	public Limit getDefaults() {
+		return defaults;
+	}
+
+	/**
+	 * Sets the default settings.
+	 *
+	 * @param defaults the default settings to set
+	 */
+	public void setDefaults(Limit defaults) {
+		this.defaults = defaults;
+	}
+
+	/**
+	 * Gets the settings per endpoint name.
+	 *
+	 * @return the endpoint settings
+	 */
+	public Map<String, Limit> getEndpoints() {
+		return endpoints;
+	}
+
+	/**
+	 * Sets the settings per endpoint name.
+	 *
+	 * @param endpoints the endpoint settings to set
+	 */
+	public void setEndpoints(Map<String, Limit> endpoints) {
+		this.endpoints = endpoints;
+	}
+
+	/**
+	 * Creates the limiter of an endpoint from its settings and the defaults.
+	 *
+	 * @param endpoint the endpoint name
+	 * @return a new limiter
+	 */
+	AdaptiveConcurrencyLimiter createLimiter(String endpoint) {
+		Limit own = endpoints.getOrDefault(endpoint, new Limit());
+		int minLimit = pick(own.getMinLimit(), defaults.getMinLimit());
+		int maxLimit = pick(own.getMaxLimit(), defaults.getMaxLimit());
+		int initialLimit = Math.max(minLimit, Math.min(maxLimit, pick(own.getInitialLimit(), defaults.getInitialLimit())));
+		return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+				pick(own.getTolerance(), defaults.getTolerance()), pick(own.getSmoothing(), defaults.getSmoothing()));
+	}
+
+	private static <T> T pick(T own, T fallback) {
+		return own != null ? own : fallback;
+	}
+
+	/**
+	 * Limit holds the limiter settings of one endpoint; unset values are null.
+	 */
+	public static class Limit {
+		/** Limit to start with. */
+		private Integer initialLimit;
+
+		/** Lower bound of the limit. */
+		private Integer minLimit;
+
+		/** Upper bound of the limit. */
+		private Integer maxLimit;
+
+		/** Tolerated latency increase relative to the average. */
+		private Double tolerance;
+
+		/** Weight of a newly computed limit. */
+		private Double smoothing;
+
+		/**
+		 * Constructs a Limit without settings.
+		 */
+		public Limit() {
+		}
+
+		/**
+		 * Constructs a Limit with all settings.
+		 *
+		 * @param initialLimit the limit to start with
+		 * @param minLimit the lower bound of the limit
+		 * @param maxLimit the upper bound of the limit
+		 * @param tolerance the tolerated latency increase
+		 * @param smoothing the weight of a newly computed limit
+		 */
+		Limit(Integer initialLimit, Integer minLimit, Integer maxLimit, Double tolerance, Double smoothing) {
+			this.initialLimit = initialLimit;
+			this.minLimit = minLimit;
+			this.maxLimit = maxLimit;
+			this.tolerance = tolerance;
+			this.smoothing = smoothing;
+		}
+
+		public Integer getInitialLimit() {
+			return initialLimit;
+		}
+
+		public void setInitialLimit(Integer initialLimit) {
+			this.initialLimit = initialLimit;
+		}
+
+		public Integer getMinLimit() {
+			return minLimit;
+		}
+
+		public void setMinLimit(Integer minLimit) {
+			this.minLimit = minLimit;
+		}
+
+		public Integer getMaxLimit() {
+			return maxLimit;
+		}
+
+		public void setMaxLimit(Integer maxLimit) {
+			this.maxLimit = maxLimit;
+		}
+
+		public Double getTolerance() {
+			return tolerance;
+		}
+
+		public void setTolerance(Double tolerance) {
+			this.tolerance = tolerance;
+		}
+
+		public Double getSmoothing() {
+			return smoothing;
+		}
+
+		public void setSmoothing(Double smoothing) {
+			this.smoothing = smoothing;
+		}
+	}
+}
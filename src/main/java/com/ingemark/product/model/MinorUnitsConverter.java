@@ -0,0 +1,22 @@
+package com.ingemark.product.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * MinorUnitsConverter stores amounts held as long minor units in the existing decimal price columns.
+ */
+@Converter
+public class MinorUnitsConverter implements AttributeConverter<Long, BigDecimal> {
+	@Override
+	public BigDecimal convertToDatabaseColumn(Long minorUnits) {
+		return minorUnits == null ? null : Money.fromMinorUnits(minorUnits);
+	}
+
+	@Override
+	public Long convertToEntityAttribute(BigDecimal amount) {
+		return amount == null ? null : Money.toMinorUnits(amount);
+	}
+}
@@ -0,0 +1,86 @@
+package com.ingemark.product.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money provides fixed-point arithmetic for prices held as long minor units (cents)
+ * and exchange rates held as longs scaled by 10^6, the precision the HNB API publishes.
+ * Conversions round half up, away from zero, to whole minor units, which gives the same result
+ * as multiplying the equivalent BigDecimal values and rounding them to two decimals.
+ * BigDecimal is only used at the boundaries and on the rare overflow path.
+ */
+public final class Money {
+	/** Number of decimal places of a minor unit amount. */
+	public static final int MINOR_UNIT_SCALE = 2;
+
+	/** Number of decimal places of a scaled exchange rate. */
+	public static final int RATE_SCALE = 6;
+
+	/** Rounding applied when converting amounts and rates to fixed point. */
+	public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+
+	/** Factor by which exchange rates are scaled. */
+	static final long RATE_FACTOR = 1_000_000L;
+
+	private Money() {
+	}
+
+	/**
+	 * Converts a decimal amount to minor units, rounding to two decimals.
+	 *
+	 * @param amount the decimal amount
+	 * @return the amount in minor units
+	 * @throws ArithmeticException if the amount does not fit into a long
+	 */
+	public static long toMinorUnits(BigDecimal amount) {
+		return amount.setScale(MINOR_UNIT_SCALE, ROUNDING).unscaledValue().longValueExact();
+	}
+
+	/**
+	 * Converts an amount in minor units to a decimal amount with two decimals.
+	 *
+	 * @param minorUnits the amount in minor units
+	 * @return the decimal amount
+	 */
+	public static BigDecimal fromMinorUnits(long minorUnits) {
+		return BigDecimal.valueOf(minorUnits, MINOR_UNIT_SCALE);
+	}
+
+	/**
+	 * Converts a decimal exchange rate to a long scaled by 10^6, rounding to six decimals.
+	 *
+	 * @param rate the decimal exchange rate
+	 * @return the scaled exchange rate
+	 * @throws ArithmeticException if the rate does not fit into a long
+	 */
+	public static long toScaledRate(BigDecimal rate) {
+		return rate.setScale(RATE_SCALE, ROUNDING).unscaledValue().longValueExact();
+	}
+
+	/**
+	 * Converts an amount in minor units with a scaled exchange rate.
+	 *
+	 * @param minorUnits the amount in minor units of the source currency
+	 * @param scaledRate the exchange rate scaled by 10^6
+	 * @return the amount in minor units of the target currency, rounded half up
+	 * @throws ArithmeticException if the result does not fit into a long
+	 */
+	public static long convert(long minorUnits, long scaledRate) {
+		long product;
+		try {
+			product = Math.multiplyExact(minorUnits, scaledRate);
+		} catch (ArithmeticException ex) {
+			return BigDecimal.valueOf(minorUnits)
+					.multiply(BigDecimal.valueOf(scaledRate))
+					.divide(BigDecimal.valueOf(RATE_FACTOR), 0, ROUNDING)
+					.longValueExact();
+		}
+		long quotient = product / RATE_FACTOR;
+		long remainder = product % RATE_FACTOR;
+		if (Math.abs(remainder) >= RATE_FACTOR / 2) {
+			quotient += Long.signum(product);
+		}
+		return quotient;
+	}
+}
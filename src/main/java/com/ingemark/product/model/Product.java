@@ -6,6 +6,9 @@ import java.math.BigDecimal;
 /**
  * Product represents an item in the inventory with a unique code, name, price in EUR,
  * and availability status. The price in USD is transient and not persisted in the database.
+ * Prices are held as long minor units (cents) and exposed as BigDecimal for the DTO boundary.
+ * Every write stamps the row with a new change version from the product_change_seq sequence,
+ * see {@link com.ingemark.product.repository.ProductSchemaInitializer}.
  */
 @Entity
 public class Product {
@@ -21,18 +24,26 @@ public class Product {
 	/** Name of the product, cannot be blank. */
 	private String name;
 
-	/** Price of the product in EUR, must be a non-negative value.*/
-	private BigDecimal priceEur;
+	/** Price of the product in EUR minor units, must be a non-negative value.*/
+	@Column(name = "price_eur")
+	@Convert(converter = MinorUnitsConverter.class)
+	private Long priceEurMinor;
 
 	/**
-	 * Price of the product in USD, calculated from the EUR price using an external API.
+	 * Price of the product in USD minor units, calculated from the EUR price using an external API.
 	 * This field is transient and not stored in the database.
 	 */
-	private BigDecimal priceUsd;
+	@Column(name = "price_usd")
+	@Convert(converter = MinorUnitsConverter.class)
+	private Long priceUsdMinor;
 
 	/** Availability status of the product, true if available, false otherwise. */
 	private boolean isAvailable;
 
+	/** Version of the last change of the product, assigned by the database on every write. */
+	@Column(name = "change_version", insertable = false, updatable = false)
+	private Long changeVersion;
+
 	/**
 	 * Gets the unique identifier of the product.
 	 *
@@ -72,37 +83,91 @@ public class Product {
 	/**
 	 * Gets the price of the product in EUR.
 	 *
-	 * @return the price in EUR
+	 * @return the price in EUR with two decimals, or null if not set
 	 */
 	public BigDecimal getPriceEur() {
-		return priceEur;
+		return priceEurMinor == null ? null : Money.fromMinorUnits(priceEurMinor);
 	}
 
 	/**
-	 * Sets the price of the product in EUR.
+	 * Sets the price of the product in EUR, rounded half up to two decimals.
 	 *
 	 * @param priceEur the price in EUR to set
 	 */
 	public void setPriceEur(BigDecimal priceEur) {
-		this.priceEur = priceEur;
+		this.priceEurMinor = priceEur == null ? null : Money.toMinorUnits(priceEur);
+	}
+
+	/**
+	 * Gets the price of the product in EUR minor units.
+	 *
+	 * @return the price in EUR cents, or null if not set
+	 */
+	public Long getPriceEurMinor() {
+		return priceEurMinor;
+	}
+
+	/**
+	 * Sets the price of the product in EUR minor units.
+	 *
+	 * @param priceEurMinor the price in EUR cents to set
+	 */
+	public void setPriceEurMinor(Long priceEurMinor) {
+		this.priceEurMinor = priceEurMinor;
 	}
 
 	/**
 	 * Gets the price of the product in USD.
 	 *
-	 * @return the price in USD
+	 * @return the price in USD with two decimals, or null if not set
 	 */
 	public BigDecimal getPriceUsd() {
-		return priceUsd;
+		return priceUsdMinor == null ? null : Money.fromMinorUnits(priceUsdMinor);
 	}
 
 	/**
-	 * Sets the price of the product in USD.
+	 * Sets the price of the product in USD, rounded half up to two decimals.
 	 *
 	 * @param priceUsd the price in USD to set
 	 */
 	public void setPriceUsd(BigDecimal priceUsd) {
-		this.priceUsd = priceUsd;
+		this.priceUsdMinor = priceUsd == null ? null : Money.toMinorUnits(priceUsd);
+	}
+
+	/**
+	 * Gets the price of the product in USD minor units.
+	 *
+	 * @return the price in USD cents, or null if not set
+	 */
+	public Long getPriceUsdMinor() {
+		return priceUsdMinor;
+	}
+
+	/**
+	 * Sets the price of the product in USD minor units.
+	 *
+	 * @param priceUsdMinor the price in USD cents to set
+	 */
+	public void setPriceUsdMinor(Long priceUsdMinor) {
+		this.priceUsdMinor = priceUsdMinor;
+	}
+
+	/**
+	 * Gets the version of the last change of the product.
+	 *
+	 * @return the change version, or null if the product was not read from the database
+	 */
+	public Long getChangeVersion() {
+		return changeVersion;
+	}
+
+	/**
+	 * Sets the version of the last change of the product.
+	 *
+	 * @param changeVersion the change version to set
+	 */
+	public void setChangeVersion(Long changeVersion) {
+		this.changeVersion = changeVersion;
 	}
 
 	/**
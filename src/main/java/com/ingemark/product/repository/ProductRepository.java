@@ -1,15 +1,29 @@
 package com.ingemark.product.repository;
 
 import com.ingemark.product.model.Product;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * ProductRepository provides methods to access and manipulate Product entities in the database.
  * It extends JpaRepository to leverage built-in CRUD operations and custom query methods.
  */
 public interface ProductRepository extends JpaRepository<Product, Long> {
+	/** Advisory lock key held by every transaction that writes products, so change versions follow commit order. */
+	long CHANGE_VERSION_LOCK_KEY = 0x5052_4F44L;
+
 	/**
 	 * Finds a Product by its code.
 	 *
@@ -18,6 +32,67 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 	 */
 	Optional<Object> findByCode(String code);
 
+	/**
+	 * Finds which of the given codes belong to existing Products.
+	 *
+	 * @param codes the codes to look up
+	 * @return the codes that belong to existing Products
+	 */
+	@Query("select p.code from Product p where p.code in :codes")
+	List<String> findExistingCodes(@Param("codes") Collection<String> codes);
+
+	/**
+	 * Sets the availability of all Products with the given codes in a single statement
+	 * and gives every changed Product a new change version.
+	 * Products that already have the requested availability are not touched.
+	 *
+	 * @param codes the codes of the Products to update
+	 * @param available the availability to set
+	 * @return the number of Products whose availability was changed
+	 */
+	@Modifying(clearAutomatically = true)
+	@Query(value = "update product set is_available = :available, change_version = nextval('product_change_seq') "
+			+ "where code in (:codes) and is_available <> :available", nativeQuery = true)
+	int updateAvailability(@Param("codes") Collection<String> codes, @Param("available") boolean available);
+
+	/**
+	 * Waits for the advisory lock serializing product writes, held until the current transaction ends.
+	 * Must be taken before the first product write of a transaction.
+	 *
+	 * @param key the lock key, CHANGE_VERSION_LOCK_KEY
+	 * @return always 1
+	 */
+	@Query(value = "select 1 from pg_advisory_xact_lock(:key)", nativeQuery = true)
+	int advisoryXactLock(@Param("key") long key);
+
+	/**
+	 * Finds the Products changed after the given change version, oldest change first.
+	 *
+	 * @param changeVersion the change version to start after
+	 * @param limit the maximum number of Products
+	 * @return the changed Products
+	 */
+	List<Product> findByChangeVersionGreaterThanOrderByChangeVersionAsc(long changeVersion, Limit limit);
+
+	/**
+	 * Streams the code, EUR price in minor units and availability of every Product.
+	 * Must be called inside a transaction so that rows are fetched in batches instead of all at once.
+	 *
+	 * @return a stream of {code, priceEurMinor, isAvailable} rows
+	 */
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+	@Query("select p.code, p.priceEurMinor, p.isAvailable from Product p")
+	Stream<Object[]> streamStatisticsColumns();
+
+	/**
+	 * Finds the code, EUR price in minor units and availability of the Products with the given codes.
+	 *
+	 * @param codes the codes to look up
+	 * @return a list of {code, priceEurMinor, isAvailable} rows
+	 */
+	@Query("select p.code, p.priceEurMinor, p.isAvailable from Product p where p.code in :codes")
+	List<Object[]> findStatisticsColumns(@Param("codes") Collection<String> codes);
+
 	// Additional custom query methods can be defined here if needed
 	// For example, to find products by name or category, etc.
 }
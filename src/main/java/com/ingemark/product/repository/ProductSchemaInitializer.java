@@ -0,0 +1,47 @@
+package com.ingemark.product.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * ProductSchemaInitializer adds the parts of the product schema that Hibernate does not manage:
+ * the sequence of change versions, the column default drawing from it and the index used by delta sync.
+ * Products created before change versions existed get a version once, so they are included in the first sync.
+ * It runs after Hibernate has created or updated the product table.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ProductSchemaInitializer {
+	/** Statements run on startup, each safe to run again. */
+	private static final String[] STATEMENTS = {
+			"CREATE SEQUENCE IF NOT EXISTS product_change_seq",
+			"ALTER TABLE product ADD COLUMN IF NOT EXISTS change_version bigint",
+			"ALTER TABLE product ALTER COLUMN change_version SET DEFAULT nextval('product_change_seq')",
+			"UPDATE product SET change_version = nextval('product_change_seq') WHERE change_version IS NULL",
+			"CREATE INDEX IF NOT EXISTS product_change_version_idx ON product (change_version)"
+	};
+
+	/** Template running the statements. */
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Constructs a ProductSchemaInitializer.
+	 *
+	 * @param jdbcTemplate the template running the statements
+	 */
+	public ProductSchemaInitializer(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Creates the sequence, column default and index if they are missing.
+	 */
+	@PostConstruct
+	public void initialize() {
+		for (String statement : STATEMENTS) {
+			jdbcTemplate.execute(statement);
+		}
+	}
+}
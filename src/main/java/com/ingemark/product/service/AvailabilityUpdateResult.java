@@ -0,0 +1,43 @@
+package com.ingemark.product.service;
+
+import java.util.List;
+
+/**
+ * AvailabilityUpdateResult describes the outcome of a bulk availability update.
+ */
+public class AvailabilityUpdateResult {
+	/** Number of products whose availability was changed. */
+	private final int updated;
+
+	/** Requested codes that do not belong to any product. */
+	private final List<String> unknownCodes;
+
+	/**
+	 * Constructs an AvailabilityUpdateResult.
+	 *
+	 * @param updated the number of products whose availability was changed
+	 * @param unknownCodes the requested codes that do not belong to any product
+	 */
+	public AvailabilityUpdateResult(int updated, List<String> unknownCodes) {
+		this.updated = updated;
+		this.unknownCodes = unknownCodes;
+	}
+
+	/**
+	 * Gets the number of products whose availability was changed.
+	 *
+	 * @return the updated count
+	 */
+	public int getUpdated() {
+		return updated;
+	}
+
+	/**
+	 * Gets the requested codes that do not belong to any product.
+	 *
+	 * @return the unknown codes
+	 */
+	public List<String> getUnknownCodes() {
+		return unknownCodes;
+	}
+}
@@ -0,0 +1,59 @@
+package com.ingemark.product.service;
+
+import com.ingemark.product.model.Product;
+
+import java.util.List;
+
+/**
+ * ProductChanges is one page of products changed after a change version.
+ */
+public class ProductChanges {
+	/** Changed products, oldest change first, with USD prices set. */
+	private final List<Product> products;
+
+	/** Change version to continue from. */
+	private final long nextVersion;
+
+	/** Whether more changes follow after this page. */
+	private final boolean hasMore;
+
+	/**
+	 * Constructs a ProductChanges.
+	 *
+	 * @param products the changed products
+	 * @param nextVersion the change version to continue from
+	 * @param hasMore whether more changes follow after this page
+	 */
+	public ProductChanges(List<Product> products, long nextVersion, boolean hasMore) {
+		this.products = products;
+		this.nextVersion = nextVersion;
+		this.hasMore = hasMore;
+	}
+
+	/**
+	 * Gets the changed products, oldest change first.
+	 *
+	 * @return the changed products
+	 */
+	public List<Product> getProducts() {
+		return products;
+	}
+
+	/**
+	 * Gets the change version to continue from.
+	 *
+	 * @return the next change version
+	 */
+	public long getNextVersion() {
+		return nextVersion;
+	}
+
+	/**
+	 * Checks whether more changes follow after this page.
+	 *
+	 * @return true if the next page should be fetched right away
+	 */
+	public boolean hasMore() {
+		return hasMore;
+	}
+}
@@ -1,48 +1,100 @@
 package com.ingemark.product.service;
 
+import com.ingemark.product.event.ProductAvailabilityChangedEvent;
+import com.ingemark.product.event.ProductChangedEvent;
 import com.ingemark.product.exception.ProductNotFoundException;
-import com.ingemark.product.hnb.service.HnbApiService;
+import com.ingemark.product.hnb.service.ExchangeRateProvider;
+import com.ingemark.product.jfr.ProductOperationEvent;
+import com.ingemark.product.model.Money;
 import com.ingemark.product.model.Product;
 import com.ingemark.product.repository.ProductRepository;
+import com.ingemark.product.timing.ServerTiming;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * ProductService provides methods to manage Product entities.
  * It interacts with the ProductRepository for database operations
- * and HnbApiService to fetch exchange rates for price conversion.
+ * and an ExchangeRateProvider to fetch exchange rates for price conversion.
+ * Prices are converted in fixed point, see {@link Money} for the rounding rules.
+ * Writes take the change version lock first, so change versions become visible in increasing order.
+ * The exchange rate is looked up before a write transaction starts, so a slow HNB call never holds
+ * a connection or the change version lock.
  */
 @Service
 public class ProductService {
+	/** Maximum number of codes bound into a single bulk update statement. */
+	static final int BULK_UPDATE_CHUNK_SIZE = 1000;
+
 	/** Repository for accessing Product entities in the database. */
 	private final ProductRepository repository;
 
-	/** Service for fetching exchange rates from the HNB API. */
-	private final HnbApiService hnbApiService;
+	/** Provider of the exchange rate, either fetched by this instance or shared by the cluster. */
+	private final ExchangeRateProvider exchangeRateProvider;
+
+	/** Publisher used to announce product changes. */
+	private final ApplicationEventPublisher eventPublisher;
+
+	/** Transaction of product creation, started after the exchange rate lookup. */
+	private final TransactionTemplate transactionTemplate;
 
 	/**
-	 * Constructs a ProductService with the specified repository and HNB API service.
+	 * Constructs a ProductService with the specified repository, exchange rate provider, event publisher
+	 * and transaction manager.
 	 *
 	 * @param repository the ProductRepository for database operations
-	 * @param hnbApiService the HnbApiService for fetching exchange rates
+	 * @param exchangeRateProvider the provider of the exchange rate
+	 * @param eventPublisher the publisher used to announce product changes
+	 * @param transactionManager the transaction manager for product creation
 	 */
-	public ProductService(ProductRepository repository, HnbApiService hnbApiService) {
+	public ProductService(ProductRepository repository, ExchangeRateProvider exchangeRateProvider,
+						  ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
 		this.repository = repository;
-		this.hnbApiService = hnbApiService;
+		this.exchangeRateProvider = exchangeRateProvider;
+		this.eventPublisher = eventPublisher;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
 	}
 
 	/**
 	 * Creates a new Product and saves it to the database.
-	 * Converts the product price from EUR to USD using the current exchange rate.
+	 * Converts the product price from EUR to USD using the current exchange rate,
+	 * then saves the product in a transaction and publishes a ProductChangedEvent for it.
 	 *
 	 * @param product the Product to create
 	 * @return the created Product with USD price set
 	 */
 	public Product createProduct(Product product) {
-		BigDecimal exchangeRate = hnbApiService.getEurToUsdRate();
-		product.setPriceUsd(product.getPriceEur().multiply(exchangeRate));
-		return repository.save(product);
+		ProductOperationEvent event = ProductOperationEvent.start("createProduct", product.getCode());
+		try {
+			long exchangeRate = Money.toScaledRate(exchangeRateProvider.getEurToUsdRate());
+			product.setPriceUsdMinor(Money.convert(product.getPriceEurMinor(), exchangeRate));
+			long dbStart = ServerTiming.start();
+			Product saved = transactionTemplate.execute(status -> {
+				repository.advisoryXactLock(ProductRepository.CHANGE_VERSION_LOCK_KEY);
+				Product created = repository.save(product);
+				eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.Type.CREATED, created));
+				return created;
+			});
+			ServerTiming.record(ServerTiming.DB, dbStart);
+			event.setDatabaseTime(System.nanoTime() - dbStart);
+			event.setProductCount(1);
+			return saved;
+		} catch (RuntimeException ex) {
+			event.fail(ex);
+			throw ex;
+		} finally {
+			event.finish();
+		}
 	}
 
 	/**
@@ -52,11 +104,23 @@ public class ProductService {
 	 * @return the Product with USD price set
 	 */
 	public Product getProductByCode(String code) {
-		Product product = (Product) repository.findByCode(code)
-				.orElseThrow(() -> new ProductNotFoundException(code));
-		BigDecimal exchangeRate = hnbApiService.getEurToUsdRate();
-		product.setPriceUsd(product.getPriceEur().multiply(exchangeRate));
-		return product;
+		ProductOperationEvent event = ProductOperationEvent.start("getProductByCode", code);
+		try {
+			long dbStart = ServerTiming.start();
+			Optional<Object> found = repository.findByCode(code);
+			ServerTiming.record(ServerTiming.DB, dbStart);
+			event.setDatabaseTime(System.nanoTime() - dbStart);
+			Product product = (Product) found.orElseThrow(() -> new ProductNotFoundException(code));
+			long exchangeRate = Money.toScaledRate(exchangeRateProvider.getEurToUsdRate());
+			product.setPriceUsdMinor(Money.convert(product.getPriceEurMinor(), exchangeRate));
+			event.setProductCount(1);
+			return product;
+		} catch (RuntimeException ex) {
+			event.fail(ex);
+			throw ex;
+		} finally {
+			event.finish();
+		}
 	}
 
 	/**
@@ -65,9 +129,102 @@ public class ProductService {
 	 * @return a list of Products with USD prices set
 	 */
 	public List<Product> getAllProducts() {
-		BigDecimal exchangeRate = hnbApiService.getEurToUsdRate();
-		List<Product> products = repository.findAll();
-		products.forEach(p -> p.setPriceUsd(p.getPriceEur().multiply(exchangeRate)));
-		return products;
+		ProductOperationEvent event = ProductOperationEvent.start("getAllProducts", null);
+		try {
+			BigDecimal exchangeRate = exchangeRateProvider.getEurToUsdRate();
+			long dbStart = ServerTiming.start();
+			List<Product> products = repository.findAll();
+			ServerTiming.record(ServerTiming.DB, dbStart);
+			event.setDatabaseTime(System.nanoTime() - dbStart);
+			if (!products.isEmpty()) {
+				long scaledRate = Money.toScaledRate(exchangeRate);
+				for (Product product : products) {
+					product.setPriceUsdMinor(Money.convert(product.getPriceEurMinor(), scaledRate));
+				}
+			}
+			event.setProductCount(products.size());
+			return products;
+		} catch (RuntimeException ex) {
+			event.fail(ex);
+			throw ex;
+		} finally {
+			event.finish();
+		}
+	}
+
+	/**
+	 * Sets the availability of all Products with the given codes using set-based updates,
+	 * issued in chunks of BULK_UPDATE_CHUNK_SIZE codes, and publishes a ProductAvailabilityChangedEvent
+	 * for the matched products once the transaction commits.
+	 *
+	 * @param codes the codes of the Products to update
+	 * @param available the availability to set
+	 * @return the number of changed Products and the codes that do not belong to any Product
+	 */
+	@Transactional
+	public AvailabilityUpdateResult updateAvailability(Collection<String> codes, boolean available) {
+		ProductOperationEvent event = ProductOperationEvent.start("updateAvailability", null);
+		try {
+			List<String> distinctCodes = codes.stream().distinct().toList();
+			Set<String> existingCodes = new HashSet<>();
+			int updated = 0;
+			long dbStart = ServerTiming.start();
+			repository.advisoryXactLock(ProductRepository.CHANGE_VERSION_LOCK_KEY);
+			for (int from = 0; from < distinctCodes.size(); from += BULK_UPDATE_CHUNK_SIZE) {
+				List<String> chunk = distinctCodes.subList(from, Math.min(from + BULK_UPDATE_CHUNK_SIZE, distinctCodes.size()));
+				existingCodes.addAll(repository.findExistingCodes(chunk));
+				updated += repository.updateAvailability(chunk, available);
+			}
+			ServerTiming.record(ServerTiming.DB, dbStart);
+			event.setDatabaseTime(System.nanoTime() - dbStart);
+			List<String> unknownCodes = distinctCodes.stream()
+					.filter(code -> !existingCodes.contains(code))
+					.toList();
+			if (updated > 0) {
+				eventPublisher.publishEvent(new ProductAvailabilityChangedEvent(List.copyOf(existingCodes), available));
+			}
+			event.setProductCount(updated);
+			return new AvailabilityUpdateResult(updated, unknownCodes);
+		} catch (RuntimeException ex) {
+			event.fail(ex);
+			throw ex;
+		} finally {
+			event.finish();
+		}
+	}
+
+	/**
+	 * Retrieves the Products changed after the given change version, oldest change first,
+	 * and converts their prices from EUR to USD.
+	 *
+	 * @param sinceVersion the change version to start after, 0 for all Products
+	 * @param limit the maximum number of Products
+	 * @return the changed Products and the change version to continue from
+	 */
+	public ProductChanges getChangesSince(long sinceVersion, int limit) {
+		ProductOperationEvent event = ProductOperationEvent.start("getChangesSince", null);
+		try {
+			long dbStart = ServerTiming.start();
+			List<Product> changed = repository.findByChangeVersionGreaterThanOrderByChangeVersionAsc(
+					sinceVersion, Limit.of(limit + 1));
+			ServerTiming.record(ServerTiming.DB, dbStart);
+			event.setDatabaseTime(System.nanoTime() - dbStart);
+			boolean hasMore = changed.size() > limit;
+			List<Product> products = hasMore ? changed.subList(0, limit) : changed;
+			if (products.isEmpty()) {
+				return new ProductChanges(products, sinceVersion, false);
+			}
+			long scaledRate = Money.toScaledRate(exchangeRateProvider.getEurToUsdRate());
+			for (Product product : products) {
+				product.setPriceUsdMinor(Money.convert(product.getPriceEurMinor(), scaledRate));
+			}
+			event.setProductCount(products.size());
+			return new ProductChanges(products, products.get(products.size() - 1).getChangeVersion(), hasMore);
+		} catch (RuntimeException ex) {
+			event.fail(ex);
+			throw ex;
+		} finally {
+			event.finish();
+		}
 	}
 }
\ No newline at end of file
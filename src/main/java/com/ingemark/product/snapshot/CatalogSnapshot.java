@@ -0,0 +1,95 @@
+package com.ingemark.product.snapshot;
+
+import java.time.Instant;
+
+/**
+ * CatalogSnapshot is an immutable, already serialized GET /products response body,
+ * optionally accompanied by its gzip-compressed form.
+ */
+public class CatalogSnapshot {
+	/** JSON serialized product list. */
+	private final byte[] json;
+
+	/** Gzip compressed JSON, null if compression is disabled. */
+	private final byte[] gzip;
+
+	/** Entity tag identifying the uncompressed body. */
+	private final String etag;
+
+	/** Whether the catalog contained no products. */
+	private final boolean empty;
+
+	/** Time at which the snapshot was built. */
+	private final Instant builtAt;
+
+	/**
+	 * Constructs a CatalogSnapshot.
+	 *
+	 * @param json the JSON serialized product list
+	 * @param gzip the gzip compressed JSON, or null
+	 * @param etag the entity tag of the uncompressed body
+	 * @param empty whether the catalog contained no products
+	 * @param builtAt the time the snapshot was built
+	 */
+	public CatalogSnapshot(byte[] json, byte[] gzip, String etag, boolean empty, Instant builtAt) {
+		this.json = json;
+		this.gzip = gzip;
+		this.etag = etag;
+		this.empty = empty;
+		this.builtAt = builtAt;
+	}
+
+	/**
+	 * Gets the JSON serialized product list.
+	 *
+	 * @return the JSON bytes
+	 */
+	public byte[] getJson() {
+		return json;
+	}
+
+	/**
+	 * Gets the gzip compressed JSON.
+	 *
+	 * @return the compressed bytes, or null if compression is disabled
+	 */
+	public byte[] getGzip() {
+		return gzip;
+	}
+
+	/**
+	 * Gets the entity tag of the uncompressed body.
+	 *
+	 * @return the quoted entity tag
+	 */
+	public String getEtag() {
+		return etag;
+	}
+
+	/**
+	 * Gets the entity tag of the gzip compressed body.
+	 *
+	 * @return the quoted entity tag
+	 */
+	public String getGzipEtag() {
+		return etag.substring(0, etag.length() - 1) + "-gzip\"";
+	}
+
+	/**
+	 * Checks if the catalog contained no products.
+	 *
+	 * @return true if the catalog was empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return empty;
+	}
+
+	/**
+	 * Gets the time at which the snapshot was built.
+	 *
+	 * @return the build time
+	 */
+	public Instant getBuiltAt() {
+		return builtAt;
+	}
+}
@@ -0,0 +1,217 @@
+package com.ingemark.product.snapshot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingemark.product.controller.dto.ProductDto;
+import com.ingemark.product.controller.mapper.ProductMapper;
+import com.ingemark.product.event.ExchangeRateChangedEvent;
+import com.ingemark.product.event.ProductAvailabilityChangedEvent;
+import com.ingemark.product.event.ProductChangedEvent;
+import com.ingemark.product.event.ProductsImportedEvent;
+import com.ingemark.product.event.ProductsInvalidatedEvent;
+import com.ingemark.product.service.ProductService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CatalogSnapshotCache keeps the full GET /products response pre-serialized in memory.
+ * The snapshot is rebuilt on a single background thread whenever a product or the exchange rate changes;
+ * bursts of changes are coalesced into one rebuild. Until a rebuild finishes the previous snapshot is served.
+ */
+@Component
+public class CatalogSnapshotCache {
+	/** Logger for failed rebuilds. */
+	private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotCache.class);
+
+	/** Service providing the products with converted prices. */
+	private final ProductService service;
+
+	/** Mapper for converting products to the DTOs the API returns. */
+	private final ProductMapper productMapper;
+
+	/** Object mapper configured the same way as the one serializing regular responses. */
+	private final ObjectMapper objectMapper;
+
+	/** Whether snapshots are built and served at all. */
+	private final boolean enabled;
+
+	/** Whether a gzip compressed copy of each snapshot is kept. */
+	private final boolean gzipEnabled;
+
+	/** Single thread running the rebuilds. */
+	private final ExecutorService rebuilder;
+
+	/** Whether a rebuild is queued but has not started yet. */
+	private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+	/** Most recently built snapshot, null until the first build completes. */
+	private volatile CatalogSnapshot snapshot;
+
+	/**
+	 * Constructs a CatalogSnapshotCache.
+	 *
+	 * @param service the service providing the products
+	 * @param productMapper the mapper for converting products to DTOs
+	 * @param objectMapper the object mapper used for serialization
+	 * @param enabled whether snapshots are built and served
+	 * @param gzipEnabled whether a gzip compressed copy is kept
+	 */
+	public CatalogSnapshotCache(ProductService service, ProductMapper productMapper, ObjectMapper objectMapper,
+								@Value("${product.catalog-snapshot.enabled:true}") boolean enabled,
+								@Value("${product.catalog-snapshot.gzip:true}") boolean gzipEnabled) {
+		this.service = service;
+		this.productMapper = productMapper;
+		this.objectMapper = objectMapper;
+		this.enabled = enabled;
+		this.gzipEnabled = gzipEnabled;
+		this.rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "catalog-snapshot");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Gets the current snapshot.
+	 *
+	 * @return the snapshot, or null if snapshots are disabled or none has been built yet
+	 */
+	public CatalogSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Builds the first snapshot once the application is ready to serve requests.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		requestRebuild();
+	}
+
+	/**
+	 * Rebuilds the snapshot after a product was created or updated and the change is committed.
+	 *
+	 * @param event the product change
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		requestRebuild();
+	}
+
+	/**
+	 * Rebuilds the snapshot after a bulk availability update is committed.
+	 *
+	 * @param event the availability change
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductAvailabilityChanged(ProductAvailabilityChangedEvent event) {
+		requestRebuild();
+	}
+
+	/**
+	 * Rebuilds the snapshot after a catalog import.
+	 *
+	 * @param event the import
+	 */
+	@EventListener
+	public void onProductsImported(ProductsImportedEvent event) {
+		requestRebuild();
+	}
+
+	/**
+	 * Rebuilds the snapshot after another instance changed products.
+	 *
+	 * @param event the invalidation
+	 */
+	@EventListener
+	public void onProductsInvalidated(ProductsInvalidatedEvent event) {
+		requestRebuild();
+	}
+
+	/**
+	 * Rebuilds the snapshot after the exchange rate changed.
+	 *
+	 * @param event the exchange rate change
+	 */
+	@EventListener
+	public void onExchangeRateChanged(ExchangeRateChangedEvent event) {
+		requestRebuild();
+	}
+
+	/**
+	 * Queues a rebuild unless one is already queued. A change arriving while a rebuild is running
+	 * queues another one, so the latest change is always reflected eventually.
+	 */
+	public void requestRebuild() {
+		if (enabled && rebuildPending.compareAndSet(false, true)) {
+			rebuilder.execute(() -> {
+				rebuildPending.set(false);
+				try {
+					snapshot = build();
+				} catch (RuntimeException ex) {
+					log.warn("Failed to rebuild catalog snapshot, keeping the previous one: {}", ex.getMessage());
+				}
+			});
+		}
+	}
+
+	/**
+	 * Loads the catalog and serializes it into a new snapshot.
+	 *
+	 * @return the new snapshot
+	 */
+	CatalogSnapshot build() {
+		List<ProductDto> products = service.getAllProducts().stream()
+				.map(productMapper::mapTo)
+				.toList();
+		try {
+			byte[] json = objectMapper.writeValueAsBytes(products);
+			byte[] gzip = gzipEnabled ? gzip(json) : null;
+			String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+			return new CatalogSnapshot(json, gzip, etag, products.isEmpty(), Instant.now());
+		} catch (JsonProcessingException ex) {
+			throw new IllegalStateException("Failed to serialize catalog snapshot", ex);
+		}
+	}
+
+	/**
+	 * Compresses the given bytes with gzip.
+	 *
+	 * @param bytes the bytes to compress
+	 * @return the compressed bytes
+	 */
+	private static byte[] gzip(byte[] bytes) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Stops the rebuild thread on shutdown.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		rebuilder.shutdownNow();
+	}
+}
@@ -0,0 +1,127 @@
+package com.ingemark.product.statistics;
+
+/**
+ * CatalogStatistics holds aggregates over the whole catalog, with prices in EUR minor units.
+ * The price aggregates are only meaningful if at least one product has a price.
+ */
+public class CatalogStatistics {
+	/** Number of products. */
+	private final int count;
+
+	/** Number of available products. */
+	private final int availableCount;
+
+	/** Number of products with a price. */
+	private final int pricedCount;
+
+	/** Lowest EUR price in minor units. */
+	private final long minPriceEur;
+
+	/** Highest EUR price in minor units. */
+	private final long maxPriceEur;
+
+	/** Average EUR price in minor units, rounded half up. */
+	private final long averagePriceEur;
+
+	/** Requested percentiles, between 0 exclusive and 100 inclusive. */
+	private final double[] percentiles;
+
+	/** EUR price in minor units at each requested percentile, using the nearest-rank method. */
+	private final long[] percentilePricesEur;
+
+	/**
+	 * Constructs a CatalogStatistics.
+	 *
+	 * @param count the number of products
+	 * @param availableCount the number of available products
+	 * @param pricedCount the number of products with a price
+	 * @param minPriceEur the lowest EUR price in minor units
+	 * @param maxPriceEur the highest EUR price in minor units
+	 * @param averagePriceEur the average EUR price in minor units
+	 * @param percentiles the requested percentiles
+	 * @param percentilePricesEur the EUR prices in minor units at the requested percentiles
+	 */
+	public CatalogStatistics(int count, int availableCount, int pricedCount, long minPriceEur, long maxPriceEur,
+							 long averagePriceEur, double[] percentiles, long[] percentilePricesEur) {
+		this.count = count;
+		this.availableCount = availableCount;
+		this.pricedCount = pricedCount;
+		this.minPriceEur = minPriceEur;
+		this.maxPriceEur = maxPriceEur;
+		this.averagePriceEur = averagePriceEur;
+		this.percentiles = percentiles;
+		this.percentilePricesEur = percentilePricesEur;
+	}
+
+	/**
+	 * Gets the number of products.
+	 *
+	 * @return the product count
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the number of available products.
+	 *
+	 * @return the available product count
+	 */
+	public int getAvailableCount() {
+		return availableCount;
+	}
+
+	/**
+	 * Gets the number of products with a price.
+	 *
+	 * @return the priced product count
+	 */
+	public int getPricedCount() {
+		return pricedCount;
+	}
+
+	/**
+	 * Gets the lowest EUR price.
+	 *
+	 * @return the lowest price in minor units
+	 */
+	public long getMinPriceEur() {
+		return minPriceEur;
+	}
+
+	/**
+	 * Gets the highest EUR price.
+	 *
+	 * @return the highest price in minor units
+	 */
+	public long getMaxPriceEur() {
+		return maxPriceEur;
+	}
+
+	/**
+	 * Gets the average EUR price.
+	 *
+	 * @return the average price in minor units
+	 */
+	public long getAveragePriceEur() {
+		return averagePriceEur;
+	}
+
+	/**
+	 * Gets the requested percentiles.
+	 *
+	 * @return the percentiles
+	 */
+	public double[] getPercentiles() {
+		return percentiles;
+	}
+
+	/**
+	 * Gets the EUR prices at the requested percentiles, in the same order as the percentiles.
+	 *
+	 * @return the prices in minor units
+	 */
+	public long[] getPercentilePricesEur() {
+		return percentilePricesEur;
+	}
+}
@@ -0,0 +1,431 @@
+package com.ingemark.product.statistics;
+
+import com.ingemark.product.event.ProductAvailabilityChangedEvent;
+import com.ingemark.product.event.ProductChangedEvent;
+import com.ingemark.product.event.ProductsImportedEvent;
+import com.ingemark.product.event.ProductsInvalidatedEvent;
+import com.ingemark.product.model.Product;
+import com.ingemark.product.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * ProductColumnStore keeps the catalog columns needed for statistics in primitive arrays,
+ * one array per column, so aggregates can be computed with a parallel scan instead of loading entities.
+ * It is loaded once at startup and then kept up to date from ProductService change events.
+ * Changes arriving while a full load is running are applied again on top of the loaded data.
+ */
+@Component
+public class ProductColumnStore {
+	/** Logger for failed loads. */
+	private static final Logger log = LoggerFactory.getLogger(ProductColumnStore.class);
+
+	/** Marker stored in the price column for products without a price. */
+	static final long NO_PRICE = Long.MIN_VALUE;
+
+	/** Number of rows scanned by a single parallel task. */
+	private static final int SCAN_CHUNK_SIZE = 1 << 16;
+
+	/** Repository the columns are loaded from. */
+	private final ProductRepository repository;
+
+	/** Read-only transaction in which the rows are streamed. */
+	private final TransactionTemplate transactionTemplate;
+
+	/** Single thread running full loads. */
+	private final ExecutorService loader;
+
+	/** Whether a full load is queued but has not started yet. */
+	private final AtomicBoolean loadPending = new AtomicBoolean();
+
+	/** Guards the columns; scans share it, changes and swaps take it exclusively. */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/** Current columns. */
+	private Columns columns = new Columns();
+
+	/** Incremented when a price is added or changed, used to invalidate the sorted price column. */
+	private long priceVersion;
+
+	/** Changes applied during a running full load, null when no load is running. */
+	private List<Predicate<Columns>> pendingChanges;
+
+	/** Sorted copy of the price column, rebuilt when the price version changes. */
+	private volatile SortedPrices sortedPrices;
+
+	/**
+	 * Constructs a ProductColumnStore.
+	 *
+	 * @param repository the repository the columns are loaded from
+	 * @param transactionManager the transaction manager for the streaming read
+	 */
+	public ProductColumnStore(ProductRepository repository, PlatformTransactionManager transactionManager) {
+		this.repository = repository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+		this.loader = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "product-column-store");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Loads the columns once the application is ready.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		requestReload();
+	}
+
+	/**
+	 * Applies a created or updated product once the change is committed.
+	 *
+	 * @param event the product change
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		Product product = event.getProduct();
+		upsert(product.getCode(), product.getPriceEurMinor(), product.isAvailable());
+	}
+
+	/**
+	 * Applies a bulk availability change once it is committed.
+	 *
+	 * @param event the availability change
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductAvailabilityChanged(ProductAvailabilityChangedEvent event) {
+		List<String> codes = event.getCodes();
+		boolean available = event.isAvailable();
+		apply(columns -> {
+			codes.forEach(code -> columns.setAvailable(code, available));
+			return false;
+		});
+	}
+
+	/**
+	 * Reloads all columns after a catalog import.
+	 *
+	 * @param event the import
+	 */
+	@EventListener
+	public void onProductsImported(ProductsImportedEvent event) {
+		requestReload();
+	}
+
+	/**
+	 * Refreshes the rows of products changed by another instance, or reloads all columns on a flush.
+	 * The rows are read on the loader thread.
+	 *
+	 * @param event the invalidation
+	 */
+	@EventListener
+	public void onProductsInvalidated(ProductsInvalidatedEvent event) {
+		if (event.isFlush()) {
+			requestReload();
+			return;
+		}
+		List<String> codes = event.getCodes();
+		loader.execute(() -> {
+			try {
+				for (Object[] row : repository.findStatisticsColumns(codes)) {
+					upsert((String) row[0], (Long) row[1], (Boolean) row[2]);
+				}
+			} catch (RuntimeException ex) {
+				log.warn("Failed to refresh product statistics columns, reloading: {}", ex.getMessage());
+				requestReload();
+			}
+		});
+	}
+
+	/**
+	 * Inserts or replaces the row of a product.
+	 *
+	 * @param code the product code
+	 * @param priceEurMinor the EUR price in minor units, or null
+	 * @param available the availability
+	 */
+	void upsert(String code, Long priceEurMinor, boolean available) {
+		long price = priceEurMinor == null ? NO_PRICE : priceEurMinor;
+		apply(columns -> columns.upsert(code, price, available));
+	}
+
+	/**
+	 * Queues a full load of the columns unless one is already queued.
+	 */
+	public void requestReload() {
+		if (loadPending.compareAndSet(false, true)) {
+			loader.execute(() -> {
+				loadPending.set(false);
+				reload();
+			});
+		}
+	}
+
+	/**
+	 * Loads all rows into new columns and swaps them in.
+	 */
+	void reload() {
+		lock.writeLock().lock();
+		try {
+			pendingChanges = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		Columns loaded = null;
+		try {
+			loaded = transactionTemplate.execute(status -> {
+				Columns target = new Columns();
+				try (Stream<Object[]> rows = repository.streamStatisticsColumns()) {
+					rows.forEach(row -> target.upsert((String) row[0],
+							row[1] == null ? NO_PRICE : (Long) row[1], (Boolean) row[2]));
+				}
+				return target;
+			});
+		} catch (RuntimeException ex) {
+			log.warn("Failed to load product statistics columns: {}", ex.getMessage());
+		}
+		lock.writeLock().lock();
+		try {
+			if (loaded != null) {
+				for (Predicate<Columns> change : pendingChanges) {
+					change.test(loaded);
+				}
+				columns = loaded;
+				priceVersion++;
+			}
+			pendingChanges = null;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Applies a change to the current columns and remembers it if a full load is running.
+	 *
+	 * @param change the change to apply, returning whether it added or changed a price
+	 */
+	private void apply(Predicate<Columns> change) {
+		lock.writeLock().lock();
+		try {
+			if (change.test(columns)) {
+				priceVersion++;
+			}
+			if (pendingChanges != null) {
+				pendingChanges.add(change);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Computes the catalog statistics with a parallel scan over the columns.
+	 *
+	 * @param percentiles the percentiles to compute, each between 0 exclusive and 100 inclusive
+	 * @return the catalog statistics
+	 * @throws IllegalArgumentException if a percentile is out of range
+	 */
+	public CatalogStatistics computeStatistics(double[] percentiles) {
+		for (double percentile : percentiles) {
+			if (!(percentile > 0 && percentile <= 100)) {
+				throw new IllegalArgumentException("Percentiles must be greater than 0 and at most 100.");
+			}
+		}
+		lock.readLock().lock();
+		try {
+			Columns current = columns;
+			int size = current.size;
+			int chunks = (size + SCAN_CHUNK_SIZE - 1) / SCAN_CHUNK_SIZE;
+			Aggregate total = IntStream.range(0, chunks)
+					.parallel()
+					.mapToObj(chunk -> Aggregate.scan(current, chunk * SCAN_CHUNK_SIZE,
+							Math.min(size, (chunk + 1) * SCAN_CHUNK_SIZE)))
+					.reduce(new Aggregate(), Aggregate::merge);
+			long[] percentilePrices = new long[0];
+			long average = 0;
+			if (total.priced > 0) {
+				long[] sorted = sortedPrices(current, total.priced);
+				percentilePrices = new long[percentiles.length];
+				for (int i = 0; i < percentiles.length; i++) {
+					int rank = (int) Math.ceil(percentiles[i] / 100 * sorted.length);
+					percentilePrices[i] = sorted[Math.max(rank, 1) - 1];
+				}
+				average = BigDecimal.valueOf(total.sum)
+						.divide(BigDecimal.valueOf(total.priced), 0, RoundingMode.HALF_UP)
+						.longValue();
+			}
+			return new CatalogStatistics(total.count, total.available, total.priced,
+					total.priced > 0 ? total.min : 0, total.priced > 0 ? total.max : 0,
+					average, percentiles.clone(), percentilePrices);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the sorted prices for the current price version, sorting them in parallel if they changed.
+	 * Must be called while holding the read lock.
+	 *
+	 * @param current the current columns
+	 * @param priced the number of rows with a price
+	 * @return the sorted prices
+	 */
+	private long[] sortedPrices(Columns current, int priced) {
+		SortedPrices cached = sortedPrices;
+		if (cached != null && cached.version == priceVersion) {
+			return cached.prices;
+		}
+		long[] prices = new long[priced];
+		int next = 0;
+		for (int row = 0; row < current.size; row++) {
+			if (current.pricesEur[row] != NO_PRICE) {
+				prices[next++] = current.pricesEur[row];
+			}
+		}
+		Arrays.parallelSort(prices);
+		sortedPrices = new SortedPrices(priceVersion, prices);
+		return prices;
+	}
+
+	/**
+	 * Gets the price version, which changes whenever the sorted price column has to be rebuilt.
+	 *
+	 * @return the price version
+	 */
+	long getPriceVersion() {
+		lock.readLock().lock();
+		try {
+			return priceVersion;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Stops the load thread on shutdown.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		loader.shutdownNow();
+	}
+
+	/**
+	 * Columns holds one primitive array per catalog column, indexed by row.
+	 */
+	private static final class Columns {
+		/** Row of each product code. */
+		final Map<String, Integer> rows = new HashMap<>();
+
+		/** EUR price in minor units per row, NO_PRICE if the product has none. */
+		long[] pricesEur = new long[1024];
+
+		/** Availability per row. */
+		boolean[] available = new boolean[1024];
+
+		/** Number of used rows. */
+		int size;
+
+		boolean upsert(String code, long price, boolean isAvailable) {
+			Integer row = rows.get(code);
+			boolean priceChanged = row == null ? price != NO_PRICE : pricesEur[row] != price;
+			if (row == null) {
+				if (size == pricesEur.length) {
+					pricesEur = Arrays.copyOf(pricesEur, size * 2);
+					available = Arrays.copyOf(available, size * 2);
+				}
+				row = size++;
+				rows.put(code, row);
+			}
+			pricesEur[row] = price;
+			available[row] = isAvailable;
+			return priceChanged;
+		}
+
+		void setAvailable(String code, boolean isAvailable) {
+			Integer row = rows.get(code);
+			if (row != null) {
+				available[row] = isAvailable;
+			}
+		}
+	}
+
+	/**
+	 * Aggregate is the partial result of scanning a range of rows.
+	 */
+	private static final class Aggregate {
+		int count;
+		int available;
+		int priced;
+		long min = Long.MAX_VALUE;
+		long max = Long.MIN_VALUE;
+		long sum;
+
+		static Aggregate scan(Columns columns, int from, int to) {
+			Aggregate aggregate = new Aggregate();
+			long[] prices = columns.pricesEur;
+			boolean[] available = columns.available;
+			for (int row = from; row < to; row++) {
+				if (available[row]) {
+					aggregate.available++;
+				}
+				long price = prices[row];
+				if (price != NO_PRICE) {
+					aggregate.priced++;
+					aggregate.sum += price;
+					aggregate.min = Math.min(aggregate.min, price);
+					aggregate.max = Math.max(aggregate.max, price);
+				}
+			}
+			aggregate.count = to - from;
+			return aggregate;
+		}
+
+		Aggregate merge(Aggregate other) {
+			Aggregate merged = new Aggregate();
+			merged.count = count + other.count;
+			merged.available = available + other.available;
+			merged.priced = priced + other.priced;
+			merged.min = Math.min(min, other.min);
+			merged.max = Math.max(max, other.max);
+			merged.sum = Math.addExact(sum, other.sum);
+			return merged;
+		}
+	}
+
+	/**
+	 * SortedPrices is a sorted copy of the price column for a given version.
+	 */
+	private static final class SortedPrices {
+		final long version;
+		final long[] prices;
+
+		SortedPrices(long version, long[] prices) {
+			this.version = version;
+			this.prices = prices;
+		}
+	}
+}
@@ -0,0 +1,176 @@
+package com.ingemark.product.timing;
+
+/**
+ * ServerTiming accumulates the time a request spends in each processing phase.
+ * A recorder is bound to the request thread by the ServerTimingFilter; code outside a request,
+ * such as background rebuilds, records into nothing. Recording is a thread-local lookup
+ * and two array writes, cheap enough to stay enabled in production.
+ */
+public final class ServerTiming {
+	/** Phase spent calling the HNB API. */
+	public static final String HNB = "hnb";
+
+	/** Phase spent in the database. */
+	public static final String DB = "db";
+
+	/** Phase spent mapping entities to DTOs. */
+	public static final String MAP = "map";
+
+	/** Phase spent serializing the response body, up to the first byte sent. */
+	public static final String SER = "ser";
+
+	/** Whole request, up to the first byte sent. */
+	public static final String TOTAL = "total";
+
+	/** Maximum number of distinct phases recorded per request. */
+	private static final int MAX_PHASES = 8;
+
+	/** Recorder of the request handled by the current thread. */
+	private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+	/** Time at which the request started. */
+	private final long startNanos = System.nanoTime();
+
+	/** Names of the recorded phases. */
+	private final String[] phases = new String[MAX_PHASES];
+
+	/** Accumulated duration of each recorded phase. */
+	private final long[] durations = new long[MAX_PHASES];
+
+	/** Number of recorded phases. */
+	private int size;
+
+	/** Time at which response serialization started, 0 if it has not started. */
+	private long serializationStartNanos;
+
+	private ServerTiming() {
+	}
+
+	/**
+	 * Binds a new recorder to the current thread.
+	 *
+	 * @return the new recorder
+	 */
+	static ServerTiming begin() {
+		ServerTiming timing = new ServerTiming();
+		CURRENT.set(timing);
+		return timing;
+	}
+
+	/**
+	 * Unbinds the recorder from the current thread.
+	 */
+	static void end() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * Gets the start time of a phase, to be passed to record once the phase ends.
+	 *
+	 * @return the current time in nanoseconds
+	 */
+	public static long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Adds the time elapsed since the given start to a phase of the current request.
+	 *
+	 * @param phase the phase name
+	 * @param startNanos the start time returned by start
+	 */
+	public static void record(String phase, long startNanos) {
+		ServerTiming timing = CURRENT.get();
+		if (timing != null) {
+			timing.add(phase, System.nanoTime() - startNanos);
+		}
+	}
+
+	/**
+	 * Marks the start of response serialization for the current request.
+	 */
+	static void startSerialization() {
+		ServerTiming timing = CURRENT.get();
+		if (timing != null && timing.serializationStartNanos == 0) {
+			timing.serializationStartNanos = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Adds a duration to a phase.
+	 *
+	 * @param phase the phase name
+	 * @param nanos the duration in nanoseconds
+	 */
+	void add(String phase, long nanos) {
+		for (int i = 0; i < size; i++) {
+			if (phases[i].equals(phase)) {
+				durations[i] += nanos;
+				return;
+			}
+		}
+		if (size < MAX_PHASES) {
+			phases[size] = phase;
+			durations[size++] = nanos;
+		}
+	}
+
+	/**
+	 * Closes the serialization and total phases. Called when the first byte is about to be sent
+	 * or the response completes without a body.
+	 */
+	void finish() {
+		long now = System.nanoTime();
+		if (serializationStartNanos != 0) {
+			add(SER, now - serializationStartNanos);
+			serializationStartNanos = 0;
+		}
+		add(TOTAL, now - startNanos);
+	}
+
+	/**
+	 * Formats the recorded phases as a Server-Timing header value, for example
+	 * {@code db;dur=1.2, hnb;dur=35.0, total;dur=37.4}.
+	 *
+	 * @return the header value
+	 */
+	String toHeaderValue() {
+		StringBuilder header = new StringBuilder(size * 16);
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				header.append(", ");
+			}
+			header.append(phases[i]).append(";dur=");
+			appendMillis(header, durations[i]);
+		}
+		return header.toString();
+	}
+
+	/**
+	 * Formats the recorded phases as key=value pairs for a structured log line.
+	 *
+	 * @return the log value
+	 */
+	String toLogValue() {
+		StringBuilder line = new StringBuilder(size * 16);
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				line.append(' ');
+			}
+			line.append(phases[i]).append("_ms=");
+			appendMillis(line, durations[i]);
+		}
+		return line.toString();
+	}
+
+	/**
+	 * Appends a duration in milliseconds with one decimal without going through String.format.
+	 *
+	 * @param target the builder to append to
+	 * @param nanos the duration in nanoseconds
+	 */
+	private static void appendMillis(StringBuilder target, long nanos) {
+		long tenths = (nanos + 50_000) / 100_000;
+		target.append(tenths / 10).append('.').append(tenths % 10);
+	}
+}
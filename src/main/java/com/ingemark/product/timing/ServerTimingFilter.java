@@ -0,0 +1,187 @@
+package com.ingemark.product.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * ServerTimingFilter records the processing phases of every product request and emits them
+ * as a Server-Timing response header, and optionally as a structured log line.
+ * The header is added just before the first byte of the body is sent, since headers cannot
+ * change afterwards; serialization time is therefore measured up to that point.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+	/** Name of the response header. */
+	static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+	/** Logger receiving one line per request when logging is enabled. */
+	private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+	/** Whether timing is recorded at all. */
+	private final boolean enabled;
+
+	/** Whether a log line is written per request. */
+	private final boolean logEnabled;
+
+	/**
+	 * Constructs a ServerTimingFilter.
+	 *
+	 * @param enabled whether timing is recorded
+	 * @param logEnabled whether a log line is written per request
+	 */
+	public ServerTimingFilter(@Value("${server-timing.enabled:true}") boolean enabled,
+							  @Value("${server-timing.log:false}") boolean logEnabled) {
+		this.enabled = enabled;
+		this.logEnabled = logEnabled;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		return !enabled || !path.startsWith("/products") || path.equals("/products/stream");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		ServerTiming timing = ServerTiming.begin();
+		TimingResponseWrapper responseWrapper = new TimingResponseWrapper(response, timing);
+		try {
+			chain.doFilter(request, responseWrapper);
+		} finally {
+			responseWrapper.writeHeader();
+			ServerTiming.end();
+			if (logEnabled) {
+				log.info("server_timing method={} path={} status={} {}", request.getMethod(),
+						request.getRequestURI(), response.getStatus(), timing.toLogValue());
+			}
+		}
+	}
+
+	/**
+	 * TimingResponseWrapper adds the Server-Timing header right before the response is committed.
+	 */
+	private static final class TimingResponseWrapper extends HttpServletResponseWrapper {
+		/** Recorder of this request. */
+		private final ServerTiming timing;
+
+		/** Whether the header was already written. */
+		private boolean headerWritten;
+
+		/** Output stream writing the header before the first byte. */
+		private ServletOutputStream outputStream;
+
+		TimingResponseWrapper(HttpServletResponse response, ServerTiming timing) {
+			super(response);
+			this.timing = timing;
+		}
+
+		void writeHeader() {
+			if (!headerWritten) {
+				headerWritten = true;
+				timing.finish();
+				if (!isCommitted()) {
+					setHeader(SERVER_TIMING_HEADER, timing.toHeaderValue());
+				}
+			}
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (outputStream == null) {
+				outputStream = new TimingOutputStream(super.getOutputStream(), this);
+			}
+			return outputStream;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			writeHeader();
+			return super.getWriter();
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			writeHeader();
+			super.flushBuffer();
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			writeHeader();
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			writeHeader();
+			super.sendError(sc);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			writeHeader();
+			super.sendRedirect(location);
+		}
+	}
+
+	/**
+	 * TimingOutputStream writes the Server-Timing header before the first byte of the body.
+	 */
+	private static final class TimingOutputStream extends ServletOutputStream {
+		private final ServletOutputStream delegate;
+		private final TimingResponseWrapper response;
+
+		TimingOutputStream(ServletOutputStream delegate, TimingResponseWrapper response) {
+			this.delegate = delegate;
+			this.response = response;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			response.writeHeader();
+			delegate.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			response.writeHeader();
+			delegate.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			response.writeHeader();
+			delegate.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			response.writeHeader();
+			delegate.close();
+		}
+
+		@Override
+		public boolean isReady() {
+			return delegate.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			delegate.setWriteListener(writeListener);
+		}
+	}
+}
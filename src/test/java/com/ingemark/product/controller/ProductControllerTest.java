@@ -1,9 +1,19 @@
 package com.ingemark.product.controller;
 
+import com.ingemark.product.controller.dto.AvailabilityUpdateDto;
+import com.ingemark.product.controller.dto.AvailabilityUpdateResultDto;
+import com.ingemark.product.controller.dto.ProductChangesDto;
 import com.ingemark.product.controller.dto.ProductDto;
 import com.ingemark.product.exception.ProductNotFoundException;
 import com.ingemark.product.model.Product;
+import com.ingemark.product.service.AvailabilityUpdateResult;
+import com.ingemark.product.service.ProductChanges;
 import com.ingemark.product.service.ProductService;
+import com.ingemark.product.snapshot.CatalogSnapshot;
+import com.ingemark.product.snapshot.CatalogSnapshotCache;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -12,8 +22,10 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,6 +40,10 @@ public class ProductControllerTest {
 	@Mock
 	private ProductService productService;
 
+	/** Catalog snapshot cache mock */
+	@Mock
+	private CatalogSnapshotCache catalogSnapshotCache;
+
 	/** Product controller */
 	@InjectMocks
 	private ProductController productController;
@@ -41,6 +57,23 @@ public class ProductControllerTest {
 		MockitoAnnotations.openMocks(this);
 	}
 
+	/**
+	 * Tests that the code of the statistics route is rejected, since GET /products/statistics would shadow it.
+	 */
+	@Test
+	public void testProductDto_ReservedCode() {
+		try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+			ProductDto product = new ProductDto();
+			product.setCode(ProductDto.RESERVED_CODE);
+			product.setName("Name");
+			Set<ConstraintViolation<ProductDto>> violations = factory.getValidator().validate(product);
+			assertEquals(1, violations.size());
+			assertEquals(ProductDto.RESERVED_CODE_MESSAGE, violations.iterator().next().getMessage());
+			product.setCode("statistic1");
+			assertTrue(factory.getValidator().validate(product).isEmpty());
+		}
+	}
+
 	/**
 	 * Tests the case when fetching all products returns an empty list.
 	 * It verifies that the response status is NO_CONTENT and the body is null.
@@ -48,7 +81,7 @@ public class ProductControllerTest {
 	@Test
 	public void testGetAllProducts_EmptyList() {
 		when(productService.getAllProducts()).thenReturn(Collections.emptyList());
-		ResponseEntity<List<?>> response = productController.getAllProducts();
+		ResponseEntity<?> response = productController.getAllProducts(null, null);
 		assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
 		assertNull(response.getBody());
 	}
@@ -62,7 +95,7 @@ public class ProductControllerTest {
 		Product product = new Product();
 		product.setCode("P1");
 		when(productService.getAllProducts()).thenReturn(Collections.singletonList(product));
-		ResponseEntity<List<?>> response = productController.getAllProducts();
+		ResponseEntity<?> response = productController.getAllProducts(null, null);
 		assertEquals(HttpStatus.OK, response.getStatusCode());
 		assertNotNull(response.getBody());
 	}
@@ -150,4 +183,129 @@ public class ProductControllerTest {
 		assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
 		assertEquals("Product with code P1 already exists.", response.getBody());
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Tests the case when a catalog snapshot is available and the client accepts gzip.
+	 * It verifies that the compressed snapshot bytes are served without querying the service.
+	 */
+	@Test
+	public void testGetAllProducts_GzipSnapshot() {
+		byte[] json = "[{}]".getBytes();
+		byte[] gzip = new byte[] {1, 2, 3};
+		CatalogSnapshot snapshot = new CatalogSnapshot(json, gzip, "\"abc\"", false, Instant.now());
+		when(catalogSnapshotCache.getSnapshot()).thenReturn(snapshot);
+		ResponseEntity<?> response = productController.getAllProducts("gzip, deflate", null);
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals("gzip", response.getHeaders().getFirst("Content-Encoding"));
+		assertSame(gzip, response.getBody());
+		verifyNoInteractions(productService);
+	}
+
+	/**
+	 * Tests the case when the client already has the current catalog snapshot.
+	 * It verifies that the response status is NOT_MODIFIED.
+	 */
+	@Test
+	public void testGetAllProducts_SnapshotNotModified() {
+		CatalogSnapshot snapshot = new CatalogSnapshot("[{}]".getBytes(), null, "\"abc\"", false, Instant.now());
+		when(catalogSnapshotCache.getSnapshot()).thenReturn(snapshot);
+		ResponseEntity<?> response = productController.getAllProducts("gzip", "\"abc\"");
+		assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+		assertNull(response.getBody());
+	}
+
+	/**
+	 * Tests the case when the client refuses gzip with q=0.
+	 * It verifies that the uncompressed snapshot is served.
+	 */
+	@Test
+	public void testGetAllProducts_GzipRefused() {
+		byte[] json = "[{}]".getBytes();
+		CatalogSnapshot snapshot = new CatalogSnapshot(json, new byte[] {1, 2, 3}, "\"abc\"", false, Instant.now());
+		when(catalogSnapshotCache.getSnapshot()).thenReturn(snapshot);
+		ResponseEntity<?> response = productController.getAllProducts("gzip;q=0, identity", null);
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertNull(response.getHeaders().getFirst("Content-Encoding"));
+		assertSame(json, response.getBody());
+	}
+
+	/**
+	 * Tests the parsing of Accept-Encoding quality values.
+	 */
+	@Test
+	public void testAcceptsGzip() {
+		assertTrue(ProductController.acceptsGzip("gzip"));
+		assertTrue(ProductController.acceptsGzip("deflate, GZIP;q=0.5"));
+		assertTrue(ProductController.acceptsGzip("*"));
+		assertFalse(ProductController.acceptsGzip(null));
+		assertFalse(ProductController.acceptsGzip("gzip;q=0"));
+		assertFalse(ProductController.acceptsGzip("gzip; q=0.0, *"));
+		assertFalse(ProductController.acceptsGzip("*;q=0"));
+		assertFalse(ProductController.acceptsGzip("deflate, br"));
+	}
+
+	/**
+	 * Tests the matching of If-None-Match entity tags.
+	 * It verifies that whole tags are compared and that W/ and * are handled.
+	 */
+	@Test
+	public void testMatchesEtag() {
+		assertTrue(ProductController.matchesEtag("\"abc\"", "\"abc\""));
+		assertTrue(ProductController.matchesEtag("\"x\", W/\"abc\"", "\"abc\""));
+		assertTrue(ProductController.matchesEtag("*", "\"abc\""));
+		assertFalse(ProductController.matchesEtag(null, "\"abc\""));
+		assertFalse(ProductController.matchesEtag("\"abcd\"", "\"abc\""));
+		assertFalse(ProductController.matchesEtag("\"abc-gzip\"", "\"abc\""));
+	}
+
+	/**
+	 * Tests the case when a bulk availability update is successful.
+	 * It verifies that the response contains the updated count and the unknown codes.
+	 */
+	@Test
+	public void testUpdateAvailability_Success() {
+		AvailabilityUpdateDto dto = new AvailabilityUpdateDto();
+		dto.setCodes(List.of("P1", "P2"));
+		dto.setAvailable(false);
+		when(productService.updateAvailability(List.of("P1", "P2"), false))
+				.thenReturn(new AvailabilityUpdateResult(1, List.of("P2")));
+		ResponseEntity<?> response = productController.updateAvailability(dto);
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		AvailabilityUpdateResultDto body = (AvailabilityUpdateResultDto) response.getBody();
+		assertNotNull(body);
+		assertEquals(1, body.getUpdated());
+		assertEquals(List.of("P2"), body.getUnknownCodes());
+	}
+
+	/**
+	 * Tests a delta sync request.
+	 * It verifies that the changed products are returned with the next token.
+	 */
+	@Test
+	public void testGetChanges_Success() {
+		Product product = new Product();
+		product.setCode("P1");
+		product.setAvailable(false);
+		when(productService.getChangesSince(5, 1000)).thenReturn(new ProductChanges(List.of(product), 9, false));
+		ResponseEntity<?> response = productController.getChanges("5", 1000);
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		ProductChangesDto body = (ProductChangesDto) response.getBody();
+		assertNotNull(body);
+		assertEquals("9", body.getNextToken());
+		assertFalse(body.isHasMore());
+		assertEquals(1, body.getProducts().size());
+		assertFalse(body.getProducts().get(0).isAvailable());
+	}
+
+	/**
+	 * Tests the case when the token or the limit of a delta sync request is invalid.
+	 * It verifies that the response status is BAD_REQUEST and the service is not called.
+	 */
+	@Test
+	public void testGetChanges_InvalidRequest() {
+		assertEquals(HttpStatus.BAD_REQUEST, productController.getChanges("abc", 1000).getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST, productController.getChanges("-1", 1000).getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST, productController.getChanges(null, 0).getStatusCode());
+		verifyNoInteractions(productService);
+	}
+}
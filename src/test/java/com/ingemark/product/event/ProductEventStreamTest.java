@@ -0,0 +1,98 @@
+package com.ingemark.product.event;
+
+import com.ingemark.product.controller.mapper.ProductMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ProductEventStreamTest is a test class for the ProductEventStream.
+ * It tests resuming from a Last-Event-ID and the reset fallback when events are no longer available.
+ */
+public class ProductEventStreamTest {
+	/** Product event stream with a replay buffer of three events */
+	private ProductEventStream eventStream;
+
+	/**
+	 * Creates a fresh event stream before each test.
+	 */
+	@BeforeEach
+	public void setUp() {
+		eventStream = new ProductEventStream(new ProductMapper(), 3, 2, Duration.ofMinutes(1), 1);
+	}
+
+	/**
+	 * Stops the dispatcher after each test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		eventStream.shutdown();
+	}
+
+	/**
+	 * Tests that only the events published after the given id are replayed.
+	 */
+	@Test
+	public void testReplayAfterKnownEventId() {
+		eventStream.publish("product-created", "a");
+		eventStream.publish("product-created", "b");
+		eventStream.publish("product-created", "c");
+		List<ProductEventStream.StreamEvent> events = eventStream.replayAfter(eventStream.eventId(1));
+		assertEquals(2, events.size());
+		assertEquals("b", events.get(0).data);
+		assertEquals("c", events.get(1).data);
+	}
+
+	/**
+	 * Tests that nothing is replayed when the client is up to date.
+	 */
+	@Test
+	public void testReplayAfterLatestEventId() {
+		eventStream.publish("product-created", "a");
+		assertTrue(eventStream.replayAfter(eventStream.eventId(1)).isEmpty());
+	}
+
+	/**
+	 * Tests that an id from another process results in a reset event.
+	 */
+	@Test
+	public void testReplayAfterUnknownEpoch() {
+		eventStream.publish("product-created", "a");
+		List<ProductEventStream.StreamEvent> events = eventStream.replayAfter("otherepoch-1");
+		assertEquals(1, events.size());
+		assertEquals(ProductEventStream.RESET_EVENT, events.get(0).name);
+	}
+
+	/**
+	 * Tests that a reset event is sent when the missed events were evicted from the replay buffer.
+	 */
+	@Test
+	public void testReplayAfterEvictedEvents() {
+		for (int i = 0; i < 5; i++) {
+			eventStream.publish("product-created", i);
+		}
+		List<ProductEventStream.StreamEvent> events = eventStream.replayAfter(eventStream.eventId(1));
+		assertEquals(1, events.size());
+		assertEquals(ProductEventStream.RESET_EVENT, events.get(0).name);
+	}
+
+	/**
+	 * Tests that invalidations from another instance are passed on as changed codes, or as a reset for a flush.
+	 */
+	@Test
+	public void testProductsInvalidated() {
+		eventStream.onProductsInvalidated(new ProductsInvalidatedEvent(List.of("ABCDEFGHIJ"), false));
+		eventStream.onProductsInvalidated(ProductsInvalidatedEvent.flush());
+		List<ProductEventStream.StreamEvent> events = eventStream.replayAfter(eventStream.eventId(0));
+		assertEquals(2, events.size());
+		assertEquals("products-invalidated", events.get(0).name);
+		assertEquals(Map.of("codes", List.of("ABCDEFGHIJ")), events.get(0).data);
+		assertEquals(ProductEventStream.RESET_EVENT, events.get(1).name);
+	}
+}
@@ -0,0 +1,253 @@
+package com.ingemark.product.hnb.service;
+
+import com.ingemark.product.event.ExchangeRateChangedEvent;
+import com.ingemark.product.hnb.model.ExchangeRate;
+import com.ingemark.product.hnb.repository.ExchangeRateRepository;
+import com.ingemark.product.jfr.ExchangeRateCacheEvent;
+import com.ingemark.product.jfr.ExchangeRateLookupEvent;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SharedExchangeRateServiceTest is a test class for the SharedExchangeRateService.
+ * It tests leader election through the advisory lock and the local caching of the shared rate.
+ */
+public class SharedExchangeRateServiceTest {
+	/** Exchange rate repository mock */
+	@Mock
+	private ExchangeRateRepository repository;
+
+	/** Hnb API service mock */
+	@Mock
+	private HnbApiService hnbApiService;
+
+	/** Application event publisher mock */
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	/** Transaction manager mock */
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	/** Shared exchange rate service with a 15 minute refresh interval and a one minute cache */
+	private SharedExchangeRateService service;
+
+	/**
+	 * Initializes the mocks and the service before each test.
+	 */
+	@BeforeEach
+	public void setUp() {
+		MockitoAnnotations.openMocks(this);
+		service = new SharedExchangeRateService(repository, hnbApiService, eventPublisher, transactionManager,
+				Duration.ofMinutes(15), Duration.ofMinutes(1));
+	}
+
+	private static ExchangeRate exchangeRate(String rate, Instant fetchedAt) {
+		ExchangeRate exchangeRate = new ExchangeRate();
+		exchangeRate.setCurrencyPair(SharedExchangeRateService.EUR_USD);
+		exchangeRate.setRate(new BigDecimal(rate));
+		exchangeRate.setFetchedAt(fetchedAt);
+		return exchangeRate;
+	}
+
+	/**
+	 * Tests that the lock holder fetches and stores a stale rate.
+	 */
+	@Test
+	public void testRefreshWhenLeaderAndStale() {
+		when(repository.tryAdvisoryXactLock(SharedExchangeRateService.REFRESH_LOCK_KEY)).thenReturn(true);
+		when(repository.findById(SharedExchangeRateService.EUR_USD))
+				.thenReturn(Optional.of(exchangeRate("1.08", Instant.now().minus(Duration.ofHours(1)))));
+		when(hnbApiService.fetchEurToUsdRate()).thenReturn(new BigDecimal("1.09"));
+		assertTrue(service.refreshEurToUsdRate());
+		verify(repository).save(argThat(rate -> rate.getRate().compareTo(new BigDecimal("1.09")) == 0));
+	}
+
+	/**
+	 * Tests that the lock holder does not fetch a rate another instance refreshed during this interval.
+	 */
+	@Test
+	public void testRefreshSkippedWhenFresh() {
+		when(repository.tryAdvisoryXactLock(SharedExchangeRateService.REFRESH_LOCK_KEY)).thenReturn(true);
+		when(repository.findById(SharedExchangeRateService.EUR_USD))
+				.thenReturn(Optional.of(exchangeRate("1.08", Instant.now().minus(Duration.ofMinutes(1)))));
+		assertFalse(service.refreshEurToUsdRate());
+		verifyNoInteractions(hnbApiService);
+	}
+
+	/**
+	 * Tests that an instance not holding the lock never calls the HNB API.
+	 */
+	@Test
+	public void testRefreshSkippedWhenNotLeader() {
+		when(repository.tryAdvisoryXactLock(SharedExchangeRateService.REFRESH_LOCK_KEY)).thenReturn(false);
+		assertFalse(service.refreshEurToUsdRate());
+		verifyNoInteractions(hnbApiService);
+		verify(repository, never()).save(any());
+	}
+
+	/**
+	 * Tests that the HNB API is called between the claim and the store transactions, not inside either.
+	 */
+	@Test
+	public void testRefreshFetchesOutsideTransaction() {
+		when(repository.tryAdvisoryXactLock(SharedExchangeRateService.REFRESH_LOCK_KEY)).thenReturn(true);
+		when(repository.findById(SharedExchangeRateService.EUR_USD))
+				.thenReturn(Optional.of(exchangeRate("1.08", Instant.now().minus(Duration.ofHours(1)))));
+		when(hnbApiService.fetchEurToUsdRate()).thenReturn(new BigDecimal("1.09"));
+		assertTrue(service.refreshEurToUsdRate());
+		InOrder inOrder = inOrder(transactionManager, repository, hnbApiService);
+		inOrder.verify(repository).claimRefresh(eq(SharedExchangeRateService.EUR_USD), any());
+		inOrder.verify(transactionManager).commit(any());
+		inOrder.verify(hnbApiService).fetchEurToUsdRate();
+		inOrder.verify(transactionManager).getTransaction(any());
+		inOrder.verify(repository).advisoryXactLock(SharedExchangeRateService.REFRESH_LOCK_KEY);
+		inOrder.verify(repository).save(any());
+	}
+
+	/**
+	 * Tests that a stale rate is not fetched while another instance holds a recent refresh claim.
+	 */
+	@Test
+	public void testRefreshSkippedWhenClaimedByAnotherInstance() {
+		ExchangeRate stale = exchangeRate("1.08", Instant.now().minus(Duration.ofHours(1)));
+		stale.setRefreshClaimedAt(Instant.now().minus(Duration.ofSeconds(5)));
+		when(repository.tryAdvisoryXactLock(SharedExchangeRateService.REFRESH_LOCK_KEY)).thenReturn(true);
+		when(repository.findById(SharedExchangeRateService.EUR_USD)).thenReturn(Optional.of(stale));
+		assertFalse(service.refreshEurToUsdRate());
+		verifyNoInteractions(hnbApiService);
+	}
+
+	/**
+	 * Tests that a fetched rate is not stored over a rate another instance refreshed in the meantime.
+	 */
+	@Test
+	public void testRefreshNotStoredWhenRefreshedMeanwhile() {
+		when(repository.tryAdvisoryXactLock(SharedExchangeRateService.REFRESH_LOCK_KEY)).thenReturn(true);
+		when(repository.findById(SharedExchangeRateService.EUR_USD))
+				.thenReturn(Optional.of(exchangeRate("1.08", Instant.now().minus(Duration.ofHours(1)))))
+				.thenReturn(Optional.of(exchangeRate("1.10", Instant.now())));
+		when(hnbApiService.fetchEurToUsdRate()).thenReturn(new BigDecimal("1.09"));
+		assertFalse(service.refreshEurToUsdRate());
+		verify(repository, never()).save(any());
+	}
+
+	/**
+	 * Tests that an instance seeing an empty shared table fetches the first rate and stores it.
+	 */
+	@Test
+	public void testGetEurToUsdRateStoresInitialRate() {
+		when(repository.findById(SharedExchangeRateService.EUR_USD))
+				.thenReturn(Optional.empty())
+				.thenReturn(Optional.empty())
+				.thenReturn(Optional.of(exchangeRate("1.09", Instant.now())));
+		when(hnbApiService.fetchEurToUsdRate()).thenReturn(new BigDecimal("1.09"));
+		assertEquals(new BigDecimal("1.09"), service.getEurToUsdRate());
+		verify(repository).save(argThat(rate -> rate.getRate().compareTo(new BigDecimal("1.09")) == 0));
+		verify(hnbApiService, times(1)).fetchEurToUsdRate();
+	}
+
+	/**
+	 * Tests that an instance not holding the lock still reads a rate changed by another instance
+	 * on its refresh tick and announces the change, although its local cache has not expired.
+	 */
+	@Test
+	public void testFollowerAnnouncesChangedSharedRate() {
+		when(repository.findById(SharedExchangeRateService.EUR_USD))
+				.thenReturn(Optional.of(exchangeRate("1.08", Instant.now())))
+				.thenReturn(Optional.of(exchangeRate("1.09", Instant.now())));
+		assertEquals(new BigDecimal("1.08"), service.getEurToUsdRate());
+		when(repository.tryAdvisoryXactLock(SharedExchangeRateService.REFRESH_LOCK_KEY)).thenReturn(false);
+
+		assertFalse(service.refreshEurToUsdRate());
+
+		ArgumentCaptor<ExchangeRateChangedEvent> captor = ArgumentCaptor.forClass(ExchangeRateChangedEvent.class);
+		verify(eventPublisher, times(2)).publishEvent(captor.capture());
+		assertEquals(new BigDecimal("1.08"), captor.getValue().getPreviousRate());
+		assertEquals(new BigDecimal("1.09"), captor.getValue().getRate());
+		assertEquals(new BigDecimal("1.09"), service.getEurToUsdRate());
+		verifyNoInteractions(hnbApiService);
+	}
+
+	/**
+	 * Tests that the refresh tick does not fetch a rate for an empty table, which is left to the first request.
+	 */
+	@Test
+	public void testRefreshTickDoesNotFetchForEmptyTableWhenNotLeader() {
+		when(repository.tryAdvisoryXactLock(SharedExchangeRateService.REFRESH_LOCK_KEY)).thenReturn(false);
+		when(repository.findById(SharedExchangeRateService.EUR_USD)).thenReturn(Optional.empty());
+		assertFalse(service.refreshEurToUsdRate());
+		verifyNoInteractions(hnbApiService, eventPublisher);
+	}
+
+	/**
+	 * Tests that the shared rate is read once and then served from the local cache.
+	 */
+	@Test
+	public void testGetEurToUsdRateCachesSharedRate() {
+		when(repository.findById(SharedExchangeRateService.EUR_USD))
+				.thenReturn(Optional.of(exchangeRate("1.08", Instant.now())));
+		assertEquals(new BigDecimal("1.08"), service.getEurToUsdRate());
+		assertEquals(new BigDecimal("1.08"), service.getEurToUsdRate());
+		verify(repository, times(1)).findById(SharedExchangeRateService.EUR_USD);
+		verify(eventPublisher).publishEvent(any(ExchangeRateChangedEvent.class));
+		verifyNoInteractions(hnbApiService);
+	}
+
+	/**
+	 * Tests that only cache misses are recorded as lookup events, while the periodic cache event counts both.
+	 */
+	@Test
+	public void testCacheMissesRecordedAndLookupsCounted() throws Exception {
+		when(repository.findById(SharedExchangeRateService.EUR_USD))
+				.thenReturn(Optional.of(exchangeRate("1.08", Instant.now().minusSeconds(60))));
+		try (Recording recording = new Recording()) {
+			recording.enable(ExchangeRateLookupEvent.class).withThreshold(Duration.ZERO);
+			recording.enable(ExchangeRateCacheEvent.class);
+			recording.start();
+			service.getEurToUsdRate();
+			service.getEurToUsdRate();
+			service.getEurToUsdRate();
+			service.emitCacheEvent();
+			recording.stop();
+
+			Path file = Files.createTempFile("exchange-rate-events", ".jfr");
+			try {
+				recording.dump(file);
+				List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+				assertEquals(1, events.stream()
+						.filter(event -> event.getEventType().getName().equals("com.ingemark.ExchangeRateLookup"))
+						.count());
+				RecordedEvent cacheEvent = events.stream()
+						.filter(event -> event.getEventType().getName().equals("com.ingemark.ExchangeRateCache"))
+						.findFirst()
+						.orElseThrow();
+				assertEquals(2, cacheEvent.getLong("hits"));
+				assertEquals(1, cacheEvent.getLong("misses"));
+				assertTrue(cacheEvent.getDuration("rateAge").compareTo(Duration.ofSeconds(60)) >= 0);
+			} finally {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+}
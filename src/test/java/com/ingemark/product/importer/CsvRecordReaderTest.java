@@ -0,0 +1,81 @@
+package com.ingemark.product.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CsvRecordReaderTest is a test class for the CsvRecordReader and the ProductCsvRow validation.
+ * It uses tiny buffers so that records and multi-byte characters span buffer boundaries.
+ */
+public class CsvRecordReaderTest {
+	private static CsvRecordReader reader(String csv, int maxRecordLength) {
+		return new CsvRecordReader(Channels.newChannel(
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))), maxRecordLength, 4);
+	}
+
+	/**
+	 * Tests quoted fields with commas, escaped quotes, line breaks and CRLF line endings.
+	 */
+	@Test
+	public void testQuotedFields() throws IOException {
+		CsvRecordReader reader = reader("code,name\r\n\"A,1\",\"say \"\"hi\"\"\"\r\n\"multi\nline\",čćž\n", 100);
+		assertEquals(List.of("code", "name"), reader.next().getFields());
+		CsvRecordReader.CsvRecord record = reader.next();
+		assertEquals(2, record.getLineNumber());
+		assertEquals(List.of("A,1", "say \"hi\""), record.getFields());
+		record = reader.next();
+		assertEquals(3, record.getLineNumber());
+		assertEquals(List.of("multi\nline", "čćž"), record.getFields());
+		assertNull(reader.next());
+	}
+
+	/**
+	 * Tests that the last record does not need a trailing line break.
+	 */
+	@Test
+	public void testLastRecordWithoutLineBreak() throws IOException {
+		CsvRecordReader reader = reader("a,b\nc,d", 100);
+		assertEquals(List.of("a", "b"), reader.next().getFields());
+		assertEquals(List.of("c", "d"), reader.next().getFields());
+		assertNull(reader.next());
+	}
+
+	/**
+	 * Tests that overlong records and unterminated quotes are reported without stopping the reader.
+	 */
+	@Test
+	public void testMalformedRecords() throws IOException {
+		CsvRecordReader reader = reader("aaaaaaaaaaaaaaaaaaaa\nok\n\"open", 10);
+		assertNotNull(reader.next().getError());
+		assertEquals(List.of("ok"), reader.next().getFields());
+		CsvRecordReader.CsvRecord record = reader.next();
+		assertNull(record.getFields());
+		assertEquals("Unterminated quoted field", record.getError());
+		assertNull(reader.next());
+	}
+
+	/**
+	 * Tests the validation of product rows.
+	 */
+	@Test
+	public void testProductRowValidation() {
+		ProductCsvRow row = ProductCsvRow.parse(List.of("ABCDEFGHIJ", " Chair ", "12.345", "yes"));
+		assertEquals("Chair", row.name);
+		assertEquals("12.35", row.priceEur.toPlainString());
+		assertTrue(row.available);
+		StringBuilder copyLine = new StringBuilder();
+		row.appendCopyLine(7, copyLine);
+		assertEquals("7,\"ABCDEFGHIJ\",\"Chair\",12.35,t\n", copyLine.toString());
+		assertThrows(IllegalArgumentException.class, () -> ProductCsvRow.parse(List.of("SHORT", "Chair", "1", "true")));
+		assertThrows(IllegalArgumentException.class, () -> ProductCsvRow.parse(List.of("ABCDEFGHIJ", "Chair", "-1", "true")));
+		assertThrows(IllegalArgumentException.class, () -> ProductCsvRow.parse(List.of("ABCDEFGHIJ", "Chair", "x", "true")));
+		assertThrows(IllegalArgumentException.class, () -> ProductCsvRow.parse(List.of("ABCDEFGHIJ", "Chair", "1", "maybe")));
+	}
+}
@@ -0,0 +1,184 @@
+package com.ingemark.product.invalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ingemark.product.event.ProductsInvalidatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * InvalidationListenerTest is a test class for the InvalidationListener.
+ * It feeds payloads to the listener directly, without a database connection,
+ * and checks which local invalidation events are published, how the publisher splits large messages
+ * and on which connection it sends them.
+ */
+public class InvalidationListenerTest {
+	/** Application event publisher mock */
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	/** Data source mock, only used by the tests that send */
+	@Mock
+	private DataSource dataSource;
+
+	/** Publisher of this instance */
+	private InvalidationPublisher invalidationPublisher;
+
+	/** Listener under test, never started */
+	private InvalidationListener listener;
+
+	/**
+	 * Initializes the mocks and the listener before each test.
+	 */
+	@BeforeEach
+	public void setUp() {
+		MockitoAnnotations.openMocks(this);
+		invalidationPublisher = new InvalidationPublisher(dataSource, new ObjectMapper(), "product_changes");
+		listener = new InvalidationListener(eventPublisher, new ObjectMapper(), invalidationPublisher,
+				"jdbc:postgresql://localhost/test", "user", "password", "product_changes",
+				Duration.ofSeconds(10), Duration.ofSeconds(30));
+	}
+
+	private static String payload(String node, long seq, String codes, boolean flush) {
+		return "{\"node\":\"" + node + "\",\"seq\":" + seq + ",\"codes\":[" + codes + "],\"flush\":" + flush + "}";
+	}
+
+	private ProductsInvalidatedEvent lastEvent(int expectedEvents) {
+		ArgumentCaptor<ProductsInvalidatedEvent> captor = ArgumentCaptor.forClass(ProductsInvalidatedEvent.class);
+		verify(eventPublisher, times(expectedEvents)).publishEvent(captor.capture());
+		return captor.getValue();
+	}
+
+	/**
+	 * Tests that consecutive messages invalidate their codes.
+	 */
+	@Test
+	public void testConsecutiveMessages() {
+		listener.handle(payload("other", 7, "\"ABCDEFGHIJ\"", false));
+		listener.handle(payload("other", 8, "\"KLMNOPQRST\",\"UVWXYZ0123\"", false));
+
+		ProductsInvalidatedEvent event = lastEvent(2);
+		assertFalse(event.isFlush());
+		assertEquals(List.of("KLMNOPQRST", "UVWXYZ0123"), event.getCodes());
+	}
+
+	/**
+	 * Tests that a skipped sequence number causes a flush.
+	 */
+	@Test
+	public void testGapCausesFlush() {
+		listener.handle(payload("other", 1, "\"ABCDEFGHIJ\"", false));
+		listener.handle(payload("other", 3, "\"KLMNOPQRST\"", false));
+
+		assertTrue(lastEvent(2).isFlush());
+	}
+
+	/**
+	 * Tests that flush messages are passed on and that sequences are tracked per instance.
+	 */
+	@Test
+	public void testFlushMessageAndSeparateSequences() {
+		listener.handle(payload("first", 1, "", true));
+		assertTrue(lastEvent(1).isFlush());
+
+		listener.handle(payload("second", 41, "\"ABCDEFGHIJ\"", false));
+		assertFalse(lastEvent(2).isFlush());
+	}
+
+	/**
+	 * Tests that own and malformed messages are ignored.
+	 */
+	@Test
+	public void testOwnAndMalformedMessagesIgnored() {
+		listener.handle(payload(invalidationPublisher.getNodeId(), 1, "\"ABCDEFGHIJ\"", false));
+		listener.handle("not json");
+
+		verifyNoInteractions(eventPublisher);
+	}
+
+	/**
+	 * Tests that channel names which are not plain identifiers are rejected.
+	 */
+	@Test
+	public void testInvalidChannelRejected() {
+		assertThrows(IllegalArgumentException.class, () -> new InvalidationListener(eventPublisher, new ObjectMapper(),
+				invalidationPublisher, "jdbc:postgresql://localhost/test", "user", "password", "changes; drop table product",
+				Duration.ofSeconds(10), Duration.ofSeconds(30)));
+	}
+
+	/**
+	 * Tests that large code lists are split into notifications below the PostgreSQL payload limit.
+	 */
+	@Test
+	public void testPublisherChunksCodes() throws Exception {
+		List<String> codes = IntStream.range(0, 3000)
+				.mapToObj(i -> String.format("%010d", i))
+				.toList();
+
+		List<List<String>> chunks = invalidationPublisher.chunk(codes);
+
+		assertTrue(chunks.size() > 1);
+		assertEquals(codes, chunks.stream().flatMap(List::stream).toList());
+		ObjectMapper objectMapper = new ObjectMapper();
+		for (List<String> chunk : chunks) {
+			InvalidationMessage message = new InvalidationMessage();
+			message.setNode(invalidationPublisher.getNodeId());
+			message.setSeq(Long.MAX_VALUE);
+			message.setCodes(chunk);
+			assertTrue(objectMapper.writeValueAsBytes(message).length <= InvalidationPublisher.MAX_PAYLOAD_BYTES);
+		}
+	}
+
+	/**
+	 * Tests that changes are numbered consecutively and sent on the connection of the writing transaction,
+	 * and that a flush for an import goes out on the import connection.
+	 */
+	@Test
+	public void testPublisherSendsOnWritingConnection() throws Exception {
+		Connection connection = mock(Connection.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		when(connection.prepareStatement(anyString())).thenReturn(statement);
+		when(dataSource.getConnection()).thenReturn(connection);
+
+		invalidationPublisher.publish(List.of("ABCDEFGHIJ"));
+		invalidationPublisher.publishFlush(connection);
+
+		ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+		verify(statement, times(2)).setString(eq(2), payload.capture());
+		verify(statement, times(2)).execute();
+		ObjectMapper objectMapper = new ObjectMapper();
+		InvalidationMessage change = objectMapper.readValue(payload.getAllValues().get(0), InvalidationMessage.class);
+		InvalidationMessage flush = objectMapper.readValue(payload.getAllValues().get(1), InvalidationMessage.class);
+		assertEquals(List.of("ABCDEFGHIJ"), change.getCodes());
+		assertEquals(1, change.getSeq());
+		assertTrue(flush.isFlush());
+		assertEquals(2, flush.getSeq());
+	}
+
+	/**
+	 * Tests that a notification which cannot be sent fails the write instead of being dropped.
+	 */
+	@Test
+	public void testPublisherFailsWrite() throws Exception {
+		Connection connection = mock(Connection.class);
+		when(connection.prepareStatement(anyString())).thenThrow(new SQLException("connection lost"));
+		when(dataSource.getConnection()).thenReturn(connection);
+
+		assertThrows(IllegalStateException.class, () -> invalidationPublisher.publish(List.of("ABCDEFGHIJ")));
+		verify(connection).close();
+	}
+}
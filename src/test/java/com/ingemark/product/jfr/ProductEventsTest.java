@@ -0,0 +1,238 @@
+package com.ingemark.product.jfr;
+
+import com.ingemark.product.exception.ProductNotFoundException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ProductEventsTest is a test class for the custom JFR events and the ingemark.jfc settings.
+ * Events are recorded with a zero threshold, so the tests do not depend on timing.
+ */
+public class ProductEventsTest {
+
+	/**
+	 * Creates a handler method of the test controller.
+	 *
+	 * @param name the method name
+	 * @return the handler method
+	 */
+	private static HandlerMethod handler(String name) throws NoSuchMethodException {
+		return new HandlerMethod(new TestController(), TestController.class.getMethod(name));
+	}
+
+	/**
+	 * Reads back the events with the given name from a recording.
+	 *
+	 * @param recording the stopped recording
+	 * @param name the event name
+	 * @return the recorded events
+	 */
+	private static List<RecordedEvent> eventsOf(Recording recording, String name) throws Exception {
+		Path file = Files.createTempFile("product-events", ".jfr");
+		try {
+			recording.dump(file);
+			return RecordingFile.readAllEvents(file).stream()
+					.filter(event -> event.getEventType().getName().equals(name))
+					.toList();
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Tests that a product operation event carries the product count, the database time and no failure.
+	 */
+	@Test
+	public void testProductOperationEvent() throws Exception {
+		try (Recording recording = new Recording()) {
+			recording.enable(ProductOperationEvent.class).withThreshold(Duration.ZERO);
+			recording.start();
+			ProductOperationEvent operation = ProductOperationEvent.start("getProductByCode", "ABCDEFGHIJ");
+			operation.setProductCount(1);
+			operation.setDatabaseTime(2_000_000L);
+			operation.finish();
+			recording.stop();
+
+			List<RecordedEvent> events = eventsOf(recording, "com.ingemark.ProductOperation");
+			assertEquals(1, events.size());
+			RecordedEvent event = events.get(0);
+			assertEquals("getProductByCode", event.getString("operation"));
+			assertEquals("ABCDEFGHIJ", event.getString("code"));
+			assertEquals(1, event.getInt("productCount"));
+			assertEquals(Duration.ofMillis(2), event.getDuration("databaseTime"));
+			assertNull(event.getString("failure"));
+		}
+	}
+
+	/**
+	 * Tests that a failed product operation is recorded with the exception class.
+	 */
+	@Test
+	public void testFailedProductOperation() throws Exception {
+		try (Recording recording = new Recording()) {
+			recording.enable(ProductOperationEvent.class).withThreshold(Duration.ZERO);
+			recording.start();
+			ProductOperationEvent operation = ProductOperationEvent.start("getProductByCode", "UNKNOWN000");
+			operation.fail(new ProductNotFoundException("UNKNOWN000"));
+			operation.finish();
+			recording.stop();
+
+			List<RecordedEvent> events = eventsOf(recording, "com.ingemark.ProductOperation");
+			assertEquals(1, events.size());
+			assertEquals(ProductNotFoundException.class.getName(), events.get(0).getString("failure"));
+		}
+	}
+
+	/**
+	 * Tests that a request event records the endpoint, the response status and the snapshot outcome,
+	 * and that the interceptor clears the current event.
+	 */
+	@Test
+	public void testProductRequestEvent() throws Exception {
+		try (Recording recording = new Recording()) {
+			recording.enable(ProductRequestEvent.class).withThreshold(Duration.ZERO);
+			recording.start();
+			ProductRequestEventInterceptor interceptor = new ProductRequestEventInterceptor();
+			MockHttpServletRequest request = new MockHttpServletRequest();
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			interceptor.preHandle(request, response, handler("getAllProducts"));
+			ProductRequestEvent.recordSnapshot(ProductRequestEvent.SNAPSHOT_NOT_MODIFIED);
+			response.setStatus(HttpStatus.NOT_MODIFIED.value());
+			interceptor.afterCompletion(request, response, handler("getAllProducts"), null);
+			recording.stop();
+
+			List<RecordedEvent> events = eventsOf(recording, "com.ingemark.ProductRequest");
+			assertEquals(1, events.size());
+			assertEquals("getAllProducts", events.get(0).getString("endpoint"));
+			assertEquals(304, events.get(0).getInt("status"));
+			assertEquals("not-modified", events.get(0).getString("snapshot"));
+			assertNull(ProductRequestEvent.current());
+		}
+	}
+
+	/**
+	 * Tests that a request event records an exception resolved by the exception handler, with the status
+	 * the client received and the product code from the path.
+	 */
+	@Test
+	public void testProductRequestEventExceptionResolvedByAdvice() throws Exception {
+		try (Recording recording = new Recording()) {
+			recording.enable(ProductRequestEvent.class).withThreshold(Duration.ZERO);
+			recording.start();
+			ProductRequestEventInterceptor interceptor = new ProductRequestEventInterceptor();
+			MockHttpServletRequest request = new MockHttpServletRequest();
+			request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("code", "UNKNOWN000"));
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			interceptor.preHandle(request, response, handler("getProductByCode"));
+			request.setAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE, new ProductNotFoundException("UNKNOWN000"));
+			response.setStatus(HttpStatus.NOT_FOUND.value());
+			interceptor.afterCompletion(request, response, handler("getProductByCode"), null);
+			recording.stop();
+
+			List<RecordedEvent> events = eventsOf(recording, "com.ingemark.ProductRequest");
+			assertEquals(1, events.size());
+			assertEquals("UNKNOWN000", events.get(0).getString("code"));
+			assertEquals(404, events.get(0).getInt("status"));
+			assertEquals(ProductNotFoundException.class.getName(), events.get(0).getString("failure"));
+		}
+	}
+
+	/**
+	 * Tests that a request event records an unhandled exception as status 500.
+	 */
+	@Test
+	public void testProductRequestEventUnhandledException() throws Exception {
+		try (Recording recording = new Recording()) {
+			recording.enable(ProductRequestEvent.class).withThreshold(Duration.ZERO);
+			recording.start();
+			ProductRequestEventInterceptor interceptor = new ProductRequestEventInterceptor();
+			MockHttpServletRequest request = new MockHttpServletRequest();
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			interceptor.preHandle(request, response, handler("getAllProducts"));
+			interceptor.afterCompletion(request, response, handler("getAllProducts"), new IllegalStateException("down"));
+			recording.stop();
+
+			List<RecordedEvent> events = eventsOf(recording, "com.ingemark.ProductRequest");
+			assertEquals(1, events.size());
+			assertEquals(500, events.get(0).getInt("status"));
+			assertEquals(IllegalStateException.class.getName(), events.get(0).getString("failure"));
+		}
+	}
+
+	/**
+	 * Tests that the record methods do nothing outside of a request.
+	 */
+	@Test
+	public void testRecordOutsideRequest() {
+		ProductRequestEvent.recordProductCount(1);
+		ProductRequestEvent.recordFailure(new IllegalStateException());
+		assertNull(ProductRequestEvent.current());
+	}
+
+	/**
+	 * Tests that events not enabled in the recording are not recorded.
+	 */
+	@Test
+	public void testDisabledEventsNotRecorded() throws Exception {
+		try (Recording recording = new Recording()) {
+			recording.enable(HnbFetchEvent.class).withThreshold(Duration.ZERO);
+			recording.start();
+			ProductOperationEvent.start("getAllProducts", null).finish();
+			HnbFetchEvent event = new HnbFetchEvent();
+			event.begin();
+			event.finish(true, 1.17, 0);
+			recording.stop();
+
+			assertTrue(eventsOf(recording, "com.ingemark.ProductOperation").isEmpty());
+			assertEquals(1, eventsOf(recording, "com.ingemark.HnbFetch").size());
+		}
+	}
+
+	/**
+	 * Tests that the settings file enables all events, records every HNB call and cache miss
+	 * and emits the cache event once a minute.
+	 */
+	@Test
+	public void testSettingsFile() throws Exception {
+		try (Reader reader = new InputStreamReader(
+				getClass().getResourceAsStream("/jfr/ingemark.jfc"), StandardCharsets.UTF_8)) {
+			Configuration configuration = Configuration.create(reader);
+			for (String name : List.of("com.ingemark.ProductRequest", "com.ingemark.ProductOperation",
+					"com.ingemark.HnbFetch", "com.ingemark.ExchangeRateLookup", "com.ingemark.ExchangeRateCache")) {
+				assertEquals("true", configuration.getSettings().get(name + "#enabled"), name);
+			}
+			assertEquals("0 ms", configuration.getSettings().get("com.ingemark.HnbFetch#threshold"));
+			assertEquals("0 ms", configuration.getSettings().get("com.ingemark.ExchangeRateLookup#threshold"));
+			assertEquals("60 s", configuration.getSettings().get("com.ingemark.ExchangeRateCache#period"));
+		}
+	}
+
+	/** Controller whose handler methods name the recorded endpoints. */
+	public static class TestController {
+		public void getAllProducts() {
+		}
+
+		public void getProductByCode() {
+		}
+	}
+}
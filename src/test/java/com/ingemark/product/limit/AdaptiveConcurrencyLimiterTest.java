@@ -0,0 +1,159 @@
+package com.ingemark.product.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AdaptiveConcurrencyLimiterTest is a test class for the AdaptiveConcurrencyLimiter and the ConcurrencyLimitInterceptor.
+ * Latencies are passed to the limiter directly, so the tests do not depend on timing.
+ */
+public class AdaptiveConcurrencyLimiterTest {
+	private static final long MILLIS = 1_000_000L;
+
+	/**
+	 * Saturates the limiter and completes every request with the given latency.
+	 *
+	 * @param limiter the limiter
+	 * @param rounds the number of rounds
+	 * @param rttNanos the latency of every request
+	 */
+	private static void saturate(AdaptiveConcurrencyLimiter limiter, int rounds, long rttNanos) {
+		for (int round = 0; round < rounds; round++) {
+			int admitted = 0;
+			while (limiter.tryAcquire()) {
+				admitted++;
+			}
+			for (int i = 0; i < admitted; i++) {
+				limiter.release(rttNanos, false);
+			}
+		}
+	}
+
+	/**
+	 * Tests that requests beyond the limit are rejected and counted.
+	 */
+	@Test
+	public void testRejectsBeyondLimit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 1.5, 0.2);
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+		assertFalse(limiter.tryAcquire());
+		assertEquals(2, limiter.getInFlight());
+		assertEquals(1, limiter.getRejected());
+		limiter.release(MILLIS, false);
+		assertTrue(limiter.tryAcquire());
+	}
+
+	/**
+	 * Tests that the limit grows up to the maximum while latency stays flat, and shrinks when latency rises.
+	 */
+	@Test
+	public void testLimitFollowsLatency() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 1.5, 0.2);
+		saturate(limiter, 50, 10 * MILLIS);
+		assertEquals(100, limiter.getLimit());
+
+		saturate(limiter, 20, 100 * MILLIS);
+		assertTrue(limiter.getLimit() < 20, "limit " + limiter.getLimit());
+		assertTrue(limiter.getLimit() >= 2);
+	}
+
+	/**
+	 * Tests that the limit does not grow while it is mostly unused.
+	 */
+	@Test
+	public void testLimitDoesNotGrowWhenUnused() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 1.5, 0.2);
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(limiter.tryAcquire());
+			limiter.release(MILLIS, false);
+		}
+		assertEquals(10, limiter.getLimit());
+	}
+
+	/**
+	 * Tests that failed requests shrink the limit down to the minimum.
+	 */
+	@Test
+	public void testFailuresBackOff() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 3, 100, 1.5, 0.2);
+		assertTrue(limiter.tryAcquire());
+		limiter.release(MILLIS, true);
+		assertEquals(18, limiter.getLimit());
+		for (int i = 0; i < 100; i++) {
+			assertTrue(limiter.tryAcquire());
+			limiter.release(MILLIS, true);
+		}
+		assertEquals(3, limiter.getLimit());
+	}
+
+	/**
+	 * Tests that the interceptor rejects requests over the endpoint limit with 503 and Retry-After
+	 * and names endpoints after their controller and handler method.
+	 */
+	@Test
+	public void testInterceptorRejectsWithRetryAfter() throws Exception {
+		ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+		properties.setRetryAfter(Duration.ofMillis(1500));
+		ConcurrencyLimitProperties.Limit single = new ConcurrencyLimitProperties.Limit();
+		single.setInitialLimit(1);
+		single.setMinLimit(1);
+		single.setMaxLimit(1);
+		properties.getEndpoints().put("catalog-get-product-by-code", single);
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(properties, meterRegistry);
+		HandlerMethod handler = new HandlerMethod(new CatalogController(), CatalogController.class.getMethod("getProductByCode"));
+
+		MockHttpServletRequest first = new MockHttpServletRequest();
+		assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), handler));
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		assertFalse(interceptor.preHandle(new MockHttpServletRequest(), rejected, handler));
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), rejected.getStatus());
+		assertEquals("2", rejected.getHeader("Retry-After"));
+
+		interceptor.afterCompletion(first, new MockHttpServletResponse(), handler, null);
+		assertEquals(0, interceptor.getLimiter("catalog-get-product-by-code").getInFlight());
+		assertEquals(1.0, meterRegistry.get("product.concurrency.rejected")
+				.tag("endpoint", "catalog-get-product-by-code").functionCounter().count());
+		assertEquals(1.0, meterRegistry.get("product.concurrency.limit").gauge().value());
+	}
+
+	/**
+	 * Tests that equally named handler methods of different controllers get separate limiters.
+	 */
+	@Test
+	public void testEndpointNamesIncludeController() throws Exception {
+		ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(
+				new ConcurrencyLimitProperties(), new SimpleMeterRegistry());
+		HandlerMethod catalog = new HandlerMethod(new CatalogController(), CatalogController.class.getMethod("getProductByCode"));
+		HandlerMethod archive = new HandlerMethod(new ArchiveController(), ArchiveController.class.getMethod("getProductByCode"));
+		assertEquals("catalog-get-product-by-code", ConcurrencyLimitInterceptor.endpointName(catalog));
+		assertEquals("archive-get-product-by-code", ConcurrencyLimitInterceptor.endpointName(archive));
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), catalog));
+		assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), archive));
+		assertEquals(1, interceptor.getLimiter("catalog-get-product-by-code").getInFlight());
+		assertEquals(1, interceptor.getLimiter("archive-get-product-by-code").getInFlight());
+	}
+
+	/** Controller whose handler methods are used to derive endpoint names. */
+	public static class CatalogController {
+		public void getProductByCode() {
+		}
+	}
+
+	/** Second controller with an equally named handler method. */
+	public static class ArchiveController {
+		public void getProductByCode() {
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.ingemark.product.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MoneyTest is a test class for the fixed-point Money arithmetic.
+ * It checks the fixed-point conversion against the equivalent BigDecimal computation.
+ */
+public class MoneyTest {
+	/**
+	 * Converts the same values with BigDecimal, the way prices were converted before fixed point.
+	 */
+	private static BigDecimal convertWithBigDecimal(BigDecimal amount, BigDecimal rate) {
+		return amount.multiply(rate).setScale(Money.MINOR_UNIT_SCALE, RoundingMode.HALF_UP);
+	}
+
+	/**
+	 * Tests random prices and rates against the BigDecimal result.
+	 */
+	@Test
+	public void testConvertMatchesBigDecimal() {
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			long minorUnits = random.nextInt(100_000_000) - 1_000_000;
+			long scaledRate = 500_000 + random.nextInt(2_000_000);
+			BigDecimal expected = convertWithBigDecimal(
+					BigDecimal.valueOf(minorUnits, Money.MINOR_UNIT_SCALE),
+					BigDecimal.valueOf(scaledRate, Money.RATE_SCALE));
+			assertEquals(expected, Money.fromMinorUnits(Money.convert(minorUnits, scaledRate)),
+					"minorUnits=" + minorUnits + ", scaledRate=" + scaledRate);
+		}
+	}
+
+	/**
+	 * Tests that exact halves are rounded away from zero.
+	 */
+	@Test
+	public void testConvertRoundsHalfUp() {
+		assertEquals(1, Money.convert(1, 500_000));
+		assertEquals(-1, Money.convert(-1, 500_000));
+		assertEquals(0, Money.convert(1, 499_999));
+	}
+
+	/**
+	 * Tests that products overflowing a long fall back to BigDecimal and still match.
+	 */
+	@Test
+	public void testConvertOverflowFallsBackToBigDecimal() {
+		long minorUnits = Long.MAX_VALUE / 1_000;
+		long scaledRate = 1_083_500;
+		BigDecimal expected = convertWithBigDecimal(
+				BigDecimal.valueOf(minorUnits, Money.MINOR_UNIT_SCALE),
+				BigDecimal.valueOf(scaledRate, Money.RATE_SCALE));
+		assertEquals(expected, Money.fromMinorUnits(Money.convert(minorUnits, scaledRate)));
+	}
+
+	/**
+	 * Tests the conversions between decimal amounts and fixed point.
+	 */
+	@Test
+	public void testBoundaryConversions() {
+		assertEquals(1235, Money.toMinorUnits(new BigDecimal("12.345")));
+		assertEquals(new BigDecimal("12.35"), Money.fromMinorUnits(1235));
+		assertEquals(1_083_500, Money.toScaledRate(new BigDecimal("1.0835")));
+	}
+}
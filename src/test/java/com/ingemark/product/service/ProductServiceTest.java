@@ -1,16 +1,23 @@
 package com.ingemark.product.service;
 
+import com.ingemark.product.event.ProductAvailabilityChangedEvent;
+import com.ingemark.product.event.ProductChangedEvent;
 import com.ingemark.product.exception.ProductNotFoundException;
 import com.ingemark.product.hnb.service.HnbApiService;
 import com.ingemark.product.model.Product;
 import com.ingemark.product.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +39,14 @@ public class ProductServiceTest {
 	@Mock
 	private HnbApiService hnbApiService;
 
+	/** Application event publisher mock */
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	/** Transaction manager mock */
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
 	/**
 	 * ProductService is the service class that provides methods to manage products.
 	 * It interacts with the ProductRepository for database operations and HnbApiService
@@ -61,9 +76,28 @@ public class ProductServiceTest {
 		when(hnbApiService.getEurToUsdRate()).thenReturn(exchangeRate);
 		when(productRepository.save(any(Product.class))).thenAnswer(i -> i.getArgument(0));
 		Product result = productService.createProduct(product);
-		assertEquals(BigDecimal.valueOf(12.0), result.getPriceUsd());
+		assertEquals(new BigDecimal("12.00"), result.getPriceUsd());
 		verify(productRepository).save(product);
 		verify(hnbApiService).getEurToUsdRate();
+		verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
+	}
+
+	/**
+	 * Tests that the exchange rate is looked up before the transaction of product creation starts.
+	 */
+	@Test
+	public void testCreateProductLooksUpRateBeforeTransaction() {
+		Product product = new Product();
+		product.setPriceEur(BigDecimal.valueOf(10));
+		when(hnbApiService.getEurToUsdRate()).thenReturn(BigDecimal.ONE);
+		when(productRepository.save(any(Product.class))).thenAnswer(i -> i.getArgument(0));
+		productService.createProduct(product);
+		InOrder inOrder = inOrder(hnbApiService, transactionManager, productRepository);
+		inOrder.verify(hnbApiService).getEurToUsdRate();
+		inOrder.verify(transactionManager).getTransaction(any());
+		inOrder.verify(productRepository).advisoryXactLock(ProductRepository.CHANGE_VERSION_LOCK_KEY);
+		inOrder.verify(productRepository).save(product);
+		inOrder.verify(transactionManager).commit(any());
 	}
 
 	/**
@@ -90,7 +124,7 @@ public class ProductServiceTest {
 		when(hnbApiService.getEurToUsdRate()).thenReturn(BigDecimal.ZERO);
 		when(productRepository.save(any(Product.class))).thenAnswer(i -> i.getArgument(0));
 		Product result = productService.createProduct(product);
-		assertEquals(BigDecimal.ZERO, result.getPriceUsd());
+		assertEquals(new BigDecimal("0.00"), result.getPriceUsd());
 	}
 
 	/**
@@ -104,7 +138,7 @@ public class ProductServiceTest {
 		when(productRepository.findByCode("code1")).thenReturn(Optional.of(product));
 		when(hnbApiService.getEurToUsdRate()).thenReturn(BigDecimal.valueOf(1.5));
 		Product result = productService.getProductByCode("code1");
-		assertEquals(BigDecimal.valueOf(30.0), result.getPriceUsd());
+		assertEquals(new BigDecimal("30.00"), result.getPriceUsd());
 		verify(productRepository).findByCode("code1");
 		verify(hnbApiService).getEurToUsdRate();
 	}
@@ -134,8 +168,8 @@ public class ProductServiceTest {
 		when(productRepository.findAll()).thenReturn(List.of(p1, p2));
 		when(hnbApiService.getEurToUsdRate()).thenReturn(BigDecimal.valueOf(2));
 		List<Product> products = productService.getAllProducts();
-		assertEquals(BigDecimal.valueOf(10), products.get(0).getPriceUsd());
-		assertEquals(BigDecimal.valueOf(20), products.get(1).getPriceUsd());
+		assertEquals(new BigDecimal("10.00"), products.get(0).getPriceUsd());
+		assertEquals(new BigDecimal("20.00"), products.get(1).getPriceUsd());
 		verify(productRepository).findAll();
 		verify(hnbApiService).getEurToUsdRate();
 	}
@@ -153,4 +187,82 @@ public class ProductServiceTest {
 		verify(productRepository).findAll();
 		verify(hnbApiService).getEurToUsdRate();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Tests a bulk availability update spanning more than one chunk.
+	 * Ensures that the updates are chunked, duplicates are ignored and unknown codes are reported.
+	 */
+	@Test
+	public void testUpdateAvailability() {
+		List<String> codes = new ArrayList<>();
+		for (int i = 0; i < ProductService.BULK_UPDATE_CHUNK_SIZE + 1; i++) {
+			codes.add("code" + i);
+		}
+		codes.add("code0");
+		when(productRepository.findExistingCodes(anyCollection()))
+				.thenAnswer(i -> new ArrayList<>(i.<List<String>>getArgument(0)))
+				.thenReturn(Collections.emptyList());
+		when(productRepository.updateAvailability(anyCollection(), eq(false)))
+				.thenReturn(ProductService.BULK_UPDATE_CHUNK_SIZE);
+		AvailabilityUpdateResult result = productService.updateAvailability(codes, false);
+		assertEquals(ProductService.BULK_UPDATE_CHUNK_SIZE * 2, result.getUpdated());
+		assertEquals(List.of("code" + ProductService.BULK_UPDATE_CHUNK_SIZE), result.getUnknownCodes());
+		verify(productRepository, times(2)).updateAvailability(anyCollection(), eq(false));
+		verify(eventPublisher).publishEvent(any(ProductAvailabilityChangedEvent.class));
+		verifyNoInteractions(hnbApiService);
+	}
+
+	/**
+	 * Tests a bulk availability update where none of the codes exist.
+	 * Ensures that no event is published and all codes are reported as unknown.
+	 */
+	@Test
+	public void testUpdateAvailabilityUnknownCodes() {
+		when(productRepository.findExistingCodes(anyCollection())).thenReturn(Collections.emptyList());
+		when(productRepository.updateAvailability(anyCollection(), eq(true))).thenReturn(0);
+		AvailabilityUpdateResult result = productService.updateAvailability(List.of("missing"), true);
+		assertEquals(0, result.getUpdated());
+		assertEquals(List.of("missing"), result.getUnknownCodes());
+		verifyNoInteractions(eventPublisher);
+	}
+
+	/**
+	 * Tests a delta sync page that is followed by more changes.
+	 * Ensures that one extra row is fetched to detect more changes and that the next version is the last returned one.
+	 */
+	@Test
+	public void testGetChangesSince() {
+		List<Product> changed = new ArrayList<>();
+		for (long version = 11; version <= 13; version++) {
+			Product product = new Product();
+			product.setCode("code" + version);
+			product.setPriceEur(new BigDecimal("10.00"));
+			product.setChangeVersion(version);
+			changed.add(product);
+		}
+		when(productRepository.findByChangeVersionGreaterThanOrderByChangeVersionAsc(eq(10L), any(Limit.class)))
+				.thenReturn(changed);
+		when(hnbApiService.getEurToUsdRate()).thenReturn(new BigDecimal("1.2"));
+		ProductChanges changes = productService.getChangesSince(10, 2);
+		assertEquals(2, changes.getProducts().size());
+		assertEquals(12, changes.getNextVersion());
+		assertTrue(changes.hasMore());
+		assertEquals(new BigDecimal("12.00"), changes.getProducts().get(0).getPriceUsd());
+		verify(productRepository).findByChangeVersionGreaterThanOrderByChangeVersionAsc(10L, Limit.of(3));
+	}
+
+	/**
+	 * Tests a delta sync without changes.
+	 * Ensures that the token stays the same and no exchange rate is fetched.
+	 */
+	@Test
+	public void testGetChangesSinceNoChanges() {
+		when(productRepository.findByChangeVersionGreaterThanOrderByChangeVersionAsc(eq(42L), any(Limit.class)))
+				.thenReturn(Collections.emptyList());
+		ProductChanges changes = productService.getChangesSince(42, 100);
+		assertTrue(changes.getProducts().isEmpty());
+		assertEquals(42, changes.getNextVersion());
+		assertFalse(changes.hasMore());
+		verifyNoInteractions(hnbApiService);
+	}
+}
@@ -0,0 +1,99 @@
+package com.ingemark.product.statistics;
+
+import com.ingemark.product.event.ProductAvailabilityChangedEvent;
+import com.ingemark.product.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * ProductColumnStoreTest is a test class for the ProductColumnStore.
+ * It tests incremental changes and the aggregates computed by the parallel scan.
+ */
+public class ProductColumnStoreTest {
+	/** Product column store */
+	private ProductColumnStore columnStore;
+
+	/**
+	 * Creates an empty column store before each test.
+	 */
+	@BeforeEach
+	public void setUp() {
+		columnStore = new ProductColumnStore(mock(ProductRepository.class), mock(PlatformTransactionManager.class));
+	}
+
+	/**
+	 * Stops the load thread after each test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		columnStore.shutdown();
+	}
+
+	/**
+	 * Tests the aggregates over a catalog spanning several scan chunks.
+	 */
+	@Test
+	public void testComputeStatistics() {
+		int count = 200_000;
+		for (int i = 1; i <= count; i++) {
+			columnStore.upsert("code" + i, (long) i, i % 4 == 0);
+		}
+		columnStore.upsert("noprice", null, true);
+		CatalogStatistics statistics = columnStore.computeStatistics(new double[] {50, 99, 100});
+		assertEquals(count + 1, statistics.getCount());
+		assertEquals(count / 4 + 1, statistics.getAvailableCount());
+		assertEquals(count, statistics.getPricedCount());
+		assertEquals(1, statistics.getMinPriceEur());
+		assertEquals(count, statistics.getMaxPriceEur());
+		assertEquals(100_001, statistics.getAveragePriceEur());
+		assertArrayEquals(new long[] {100_000, 198_000, 200_000}, statistics.getPercentilePricesEur());
+	}
+
+	/**
+	 * Tests that updates replace rows and availability changes are applied by code.
+	 */
+	@Test
+	public void testIncrementalChanges() {
+		columnStore.upsert("a", 100L, true);
+		columnStore.upsert("b", 300L, true);
+		columnStore.upsert("a", 200L, true);
+		columnStore.onProductAvailabilityChanged(new ProductAvailabilityChangedEvent(List.of("a", "unknown"), false));
+		CatalogStatistics statistics = columnStore.computeStatistics(new double[] {50});
+		assertEquals(2, statistics.getCount());
+		assertEquals(1, statistics.getAvailableCount());
+		assertEquals(200, statistics.getMinPriceEur());
+		assertEquals(250, statistics.getAveragePriceEur());
+		assertArrayEquals(new long[] {200}, statistics.getPercentilePricesEur());
+	}
+
+	/**
+	 * Tests that only added or changed prices invalidate the sorted price column.
+	 */
+	@Test
+	public void testPriceVersionChangesOnlyWithPrices() {
+		columnStore.upsert("a", 100L, true);
+		long version = columnStore.getPriceVersion();
+		columnStore.upsert("a", 100L, false);
+		columnStore.upsert("noprice", null, true);
+		columnStore.onProductAvailabilityChanged(new ProductAvailabilityChangedEvent(List.of("a"), true));
+		assertEquals(version, columnStore.getPriceVersion());
+		columnStore.upsert("a", 150L, true);
+		assertNotEquals(version, columnStore.getPriceVersion());
+		assertArrayEquals(new long[] {150}, columnStore.computeStatistics(new double[] {50}).getPercentilePricesEur());
+	}
+
+	/**
+	 * Tests that an out of range percentile is rejected.
+	 */
+	@Test
+	public void testComputeStatisticsInvalidPercentile() {
+		assertThrows(IllegalArgumentException.class, () -> columnStore.computeStatistics(new double[] {0}));
+	}
+}
@@ -0,0 +1,56 @@
+package com.ingemark.product.timing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ServerTimingFilterTest is a test class for the ServerTimingFilter.
+ * It tests that the Server-Timing header is present on product responses with and without a body.
+ */
+public class ServerTimingFilterTest {
+	/** Server timing filter with logging disabled */
+	private final ServerTimingFilter filter = new ServerTimingFilter(true, false);
+
+	/**
+	 * Tests that phases recorded by the handler appear in the header sent with the body.
+	 */
+	@Test
+	public void testHeaderWrittenBeforeBody() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products/ABCDEFGHIJ");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, (req, res) -> {
+			ServerTiming.record(ServerTiming.DB, ServerTiming.start());
+			res.getOutputStream().write("{}".getBytes());
+			res.flushBuffer();
+		});
+		String header = response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER);
+		assertNotNull(header);
+		assertTrue(header.startsWith("db;dur="));
+		assertTrue(header.contains("total;dur="));
+	}
+
+	/**
+	 * Tests that the header is also written when the response has no body.
+	 */
+	@Test
+	public void testHeaderWrittenWithoutBody() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, (req, res) -> {});
+		assertNotNull(response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER));
+	}
+
+	/**
+	 * Tests that requests outside the product API are not timed.
+	 */
+	@Test
+	public void testOtherPathsNotTimed() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/swagger-ui/index.html");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, (req, res) -> {});
+		assertNull(response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER));
+	}
+}
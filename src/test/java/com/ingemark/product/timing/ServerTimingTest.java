@@ -0,0 +1,54 @@
+package com.ingemark.product.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ServerTimingTest is a test class for the ServerTiming recorder.
+ * It tests phase accumulation and the header and log formats.
+ */
+public class ServerTimingTest {
+	/**
+	 * Unbinds the recorder after each test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		ServerTiming.end();
+	}
+
+	/**
+	 * Tests that repeated phases are summed and formatted with one decimal in milliseconds.
+	 */
+	@Test
+	public void testHeaderValue() {
+		ServerTiming timing = ServerTiming.begin();
+		timing.add(ServerTiming.DB, 1_200_000);
+		timing.add(ServerTiming.HNB, 35_000_000);
+		timing.add(ServerTiming.DB, 260_000);
+		assertEquals("db;dur=1.5, hnb;dur=35.0", timing.toHeaderValue());
+		assertEquals("db_ms=1.5 hnb_ms=35.0", timing.toLogValue());
+	}
+
+	/**
+	 * Tests that recording without a bound recorder is ignored.
+	 */
+	@Test
+	public void testRecordWithoutRequest() {
+		assertDoesNotThrow(() -> ServerTiming.record(ServerTiming.DB, ServerTiming.start()));
+	}
+
+	/**
+	 * Tests that finishing adds the serialization and total phases.
+	 */
+	@Test
+	public void testFinish() {
+		ServerTiming timing = ServerTiming.begin();
+		ServerTiming.startSerialization();
+		timing.finish();
+		String header = timing.toHeaderValue();
+		assertTrue(header.startsWith("ser;dur="));
+		assertTrue(header.contains(", total;dur="));
+	}
+}